@@ -6,7 +6,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "shop_order")
+@Table(name = "shop_order", indexes = @Index(name = "idx_shop_order_user_id_id", columnList = "user_id, id"))
 @Data
 public class ShopOrder {
     @Id
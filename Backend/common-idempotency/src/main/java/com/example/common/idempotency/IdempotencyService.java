@@ -0,0 +1,109 @@
+package com.example.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Makes client retries of mutations safe. The first request carrying an {@code Idempotency-Key}
+ * runs and its successful response is stored under the key for {@code idempotency.ttl}; a retry
+ * with the same key and body gets the stored response back without running the mutation again.
+ * Failed requests are not stored, so they can be retried with the same key.
+ * <p>
+ * Services register it, and the {@link IdempotencyStore} it uses, as beans of their own.
+ */
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    // Bounds how long a key stays claimed when the node running its request dies
+    private final Duration lease;
+
+    public IdempotencyService(IdempotencyStore store, ObjectMapper objectMapper, Duration ttl, Duration lease) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+    }
+
+    /**
+     * Runs the action once per key within the scope; without a key the action just runs. The scope
+     * names the endpoint and what it acts on, such as the cart or the user, so the same key used on
+     * another cart or by another user is a new request.
+     */
+    public ResponseEntity<?> execute(String key, String scope, Object request, Supplier<? extends ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String storeKey = scope + ":" + key;
+        byte[] fingerprint = fingerprint(request);
+        IdempotencyStore.Entry existing = store.putIfAbsent(storeKey, IdempotencyStore.Entry.inFlight(fingerprint), lease);
+        if (existing != null) {
+            return replay(existing, fingerprint);
+        }
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            store.remove(storeKey);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            store.remove(storeKey);
+            return response;
+        }
+        store.put(storeKey, IdempotencyStore.Entry.completed(fingerprint, response.getStatusCode().value(),
+                toJson(response.getBody())), ttl);
+        return response;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyStore.Entry existing, byte[] fingerprint) {
+        if (!MessageDigest.isEqual(existing.getFingerprint(), fingerprint)) {
+            return ResponseEntity.unprocessableEntity()
+                    .body(Map.of("error", HEADER + " was already used with a different request"));
+        }
+        if (!existing.isCompleted()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "A request with this " + HEADER + " is still in progress"));
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(existing.getStatus()).header(REPLAYED_HEADER, "true");
+        if (existing.getBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(existing.getBody());
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private byte[] toJson(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store response", e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.common.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Remembers, per idempotency key, the request it was first used with and the response it got.
+ * The in-memory implementation serves a single node; with several replicas the store has to be
+ * shared, e.g. a key-value store with set-if-absent and expiry.
+ */
+public interface IdempotencyStore {
+
+    /** Stores the entry unless a live one exists for the key; returns the existing entry, or null. */
+    Entry putIfAbsent(String key, Entry entry, Duration ttl);
+
+    void put(String key, Entry entry, Duration ttl);
+
+    void remove(String key);
+
+    /** A request fingerprint plus, once the request has completed, its status and JSON body. */
+    final class Entry {
+        private final byte[] fingerprint;
+        private final boolean completed;
+        private final int status;
+        private final byte[] body;
+
+        private Entry(byte[] fingerprint, boolean completed, int status, byte[] body) {
+            this.fingerprint = fingerprint;
+            this.completed = completed;
+            this.status = status;
+            this.body = body;
+        }
+
+        public static Entry inFlight(byte[] fingerprint) {
+            return new Entry(fingerprint, false, 0, null);
+        }
+
+        public static Entry completed(byte[] fingerprint, int status, byte[] body) {
+            return new Entry(fingerprint, true, status, body);
+        }
+
+        public byte[] getFingerprint() {
+            return fingerprint;
+        }
+
+        public boolean isCompleted() {
+            return completed;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.common.idempotency;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Keeps entries in a heap map, so keys are only seen by the node that stored them; expired ones are swept every minute. */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final Map<String, Slot> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepMillis = new AtomicLong();
+
+    @Override
+    public Entry putIfAbsent(String key, Entry entry, Duration ttl) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        Slot[] existing = new Slot[1];
+        entries.compute(key, (k, slot) -> {
+            if (slot != null && slot.expiresAtMillis > now) {
+                existing[0] = slot;
+                return slot;
+            }
+            return new Slot(entry, now + ttl.toMillis());
+        });
+        return existing[0] == null ? null : existing[0].entry;
+    }
+
+    @Override
+    public void put(String key, Entry entry, Duration ttl) {
+        entries.put(key, new Slot(entry, System.currentTimeMillis() + ttl.toMillis()));
+    }
+
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweepMillis.get();
+        if (now >= due && nextSweepMillis.compareAndSet(due, now + SWEEP_INTERVAL_MILLIS)) {
+            entries.values().removeIf(slot -> slot.expiresAtMillis <= now);
+        }
+    }
+
+    private static final class Slot {
+        private final Entry entry;
+        private final long expiresAtMillis;
+
+        private Slot(Entry entry, long expiresAtMillis) {
+            this.entry = entry;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
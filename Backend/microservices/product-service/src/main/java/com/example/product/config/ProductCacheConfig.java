@@ -0,0 +1,17 @@
+package com.example.product.config;
+
+import com.example.product.service.InMemoryProductCacheInvalidationBus;
+import com.example.product.service.ProductCacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ProductCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.invalidation-bus", havingValue = "local", matchIfMissing = true)
+    public ProductCacheInvalidationBus productCacheInvalidationBus() {
+        return new InMemoryProductCacheInvalidationBus();
+    }
+}
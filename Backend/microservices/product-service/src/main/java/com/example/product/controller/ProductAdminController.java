@@ -0,0 +1,33 @@
+package com.example.product.controller;
+
+import com.example.product.dto.CacheStatsDTO;
+import com.example.product.dto.ReindexStatusDTO;
+import com.example.product.service.ProductDetailCache;
+import com.example.product.service.ProductReindexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/products/admin")
+@RequiredArgsConstructor
+public class ProductAdminController {
+    private final ProductReindexService productReindexService;
+    private final ProductDetailCache productDetailCache;
+
+    @PostMapping("/reindex")
+    public ResponseEntity<ReindexStatusDTO> startReindex() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productReindexService.startReindex());
+    }
+
+    @GetMapping("/reindex")
+    public ReindexStatusDTO getReindexStatus() {
+        return productReindexService.getStatus();
+    }
+
+    @GetMapping("/cache-stats")
+    public CacheStatsDTO getCacheStats() {
+        return productDetailCache.stats();
+    }
+}
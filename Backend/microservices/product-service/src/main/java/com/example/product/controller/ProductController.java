@@ -1,6 +1,14 @@
 package com.example.product.controller;
 
+import com.example.product.dto.CursorPage;
+import com.example.product.dto.FacetedSearchRequest;
+import com.example.product.dto.FacetedSearchResultDTO;
 import com.example.product.dto.ProductDTO;
+import com.example.product.dto.ProductItemPriceDTO;
+import com.example.product.dto.ProductSortOrder;
+import com.example.product.dto.ProductSummaryDTO;
+import com.example.product.dto.SearchResultPage;
+import com.example.product.service.ProductExportService;
 import com.example.product.service.ProductService;
 import com.example.product.service.ProductSearchService;
 import com.example.product.mapper.ProductMapper;
@@ -8,12 +16,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 import jakarta.validation.Valid;
 import com.example.product.service.CloudinaryService;
 import org.springframework.web.multipart.MultipartFile;
@@ -28,6 +40,7 @@ public class ProductController {
     private final ProductSearchService productSearchService;
     private final ProductMapper productMapper;
     private final CloudinaryService cloudinaryService;
+    private final ProductExportService productExportService;
 
     @GetMapping
     public Page<ProductDTO> getAllProducts(
@@ -38,6 +51,31 @@ public class ProductController {
         return productService.getAllProducts(pageable);
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(
+        @RequestParam(defaultValue = "ndjson") String format,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        boolean ndjson = !"json".equalsIgnoreCase(format);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                productExportService.exportCatalog(gzipOut, ndjson);
+                gzipOut.finish();
+            } else {
+                productExportService.exportCatalog(out, ndjson);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType("application/x-ndjson") : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + (ndjson ? "ndjson" : "json") + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/{id}")
     public ProductDTO getProductById(@PathVariable Long id) {
         return productService.getProductById(id);
@@ -66,6 +104,23 @@ public class ProductController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/search/page")
+    public SearchResultPage<ProductSummaryDTO> searchProductsPage(
+        @RequestParam String query,
+        @RequestParam(defaultValue = "false") boolean fuzzy,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean trackTotalHits
+    ) {
+        return productSearchService.searchProductsPage(query, fuzzy, page, size, cursor, trackTotalHits);
+    }
+
+    @GetMapping("/search/facets")
+    public FacetedSearchResultDTO facetedSearch(FacetedSearchRequest request) {
+        return productSearchService.facetedSearch(request);
+    }
+
     @GetMapping("/search/fuzzy")
     public List<ProductDTO> fuzzySearch(@RequestParam String query) {
         return productSearchService.fuzzySearch(query).stream()
@@ -93,11 +148,39 @@ public class ProductController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping("/category/{categoryName}/page")
+    public SearchResultPage<ProductSummaryDTO> getProductsByCategoryPage(
+        @PathVariable String categoryName,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "false") boolean trackTotalHits
+    ) {
+        return productSearchService.searchByCategoryPage(categoryName, page, size, cursor, trackTotalHits);
+    }
+
     @GetMapping("/category/id/{categoryId}")
     public List<ProductDTO> getProductsByCategoryId(@PathVariable Long categoryId) {
         return productService.searchProducts(null, categoryId, null, null);
     }
 
+    @GetMapping("/listing")
+    public CursorPage<ProductSummaryDTO> listProducts(
+        @RequestParam(required = false) Long categoryId,
+        @RequestParam(required = false) BigDecimal minPrice,
+        @RequestParam(required = false) BigDecimal maxPrice,
+        @RequestParam(defaultValue = "NEWEST") ProductSortOrder sort,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        return productService.searchProductsKeyset(categoryId, minPrice, maxPrice, sort, cursor, size);
+    }
+
+    @PostMapping("/items/prices")
+    public List<ProductItemPriceDTO> getItemPrices(@RequestBody List<Long> productItemIds) {
+        return productService.getItemPrices(productItemIds);
+    }
+
     @PostMapping("/upload-image")
     public ResponseEntity<String> uploadProductImage(@RequestParam("file") MultipartFile file) {
         try {
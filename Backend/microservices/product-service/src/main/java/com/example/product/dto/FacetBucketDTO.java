@@ -0,0 +1,13 @@
+package com.example.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucketDTO {
+    private String key;
+    private long count;
+}
@@ -0,0 +1,20 @@
+package com.example.product.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/** Query text and facet selections for a faceted search; every field is optional. */
+@Data
+public class FacetedSearchRequest {
+    private String query;
+    private String categoryName;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Double minRating;
+    private String condition;
+    private String shippingType;
+    private int page = 0;
+    private int size = 20;
+    private double priceInterval = 50;
+}
@@ -0,0 +1,21 @@
+package com.example.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of hits together with facet counts (category, price, rating, condition,
+ * shippingType) computed over every product matching the query and filters.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedSearchResultDTO {
+    private List<ProductSummaryDTO> content;
+    private Long totalHits;
+    private Map<String, List<FacetBucketDTO>> facets;
+}
@@ -0,0 +1,25 @@
+package com.example.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Pricing view of a product item for cart totals: the item price (falling back to the product
+ * price), the product's category for promotions, and its cheapest shipping option.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductItemPriceDTO {
+    private Long productItemId;
+    private Long productId;
+    private Long categoryId;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer qtyInStock;
+    private BigDecimal cheapestShippingPrice;
+}
@@ -0,0 +1,7 @@
+package com.example.product.dto;
+
+public enum ProductSortOrder {
+    PRICE_ASC,
+    PRICE_DESC,
+    NEWEST
+}
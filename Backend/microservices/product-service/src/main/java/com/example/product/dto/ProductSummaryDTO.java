@@ -0,0 +1,29 @@
+package com.example.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Listing projection of a product: only the scalar columns a results page needs,
+ * selected directly by JPQL so no entity or collection is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDTO {
+    private Long id;
+    private Long categoryId;
+    private Long sellerId;
+    private String name;
+    private String productImage;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private BigDecimal discount;
+    private Double rating;
+    private String condition;
+    private LocalDateTime createdAt;
+}
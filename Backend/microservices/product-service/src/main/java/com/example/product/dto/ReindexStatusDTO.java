@@ -0,0 +1,17 @@
+package com.example.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReindexStatusDTO {
+    private String state; // RUNNING, COMPLETED, FAILED
+    private String indexName;
+    private long documents;
+    private long elapsedMs;
+    private double docsPerSecond;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package com.example.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of search hits. {@code totalHits} is exact when {@code totalHitsExact} is set and
+ * otherwise a lower bound capped at 10,000; {@code nextCursor} is a search_after position that
+ * can replace page numbers for deep paging.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultPage<T> {
+    private List<T> content;
+    private Long totalHits;
+    private boolean totalHitsExact;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -2,18 +2,30 @@ package com.example.product.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 import java.util.List;
 import com.example.product.entity.ShippingOption;
 import com.example.product.entity.ProductVariant;
 import com.example.commonentities.SiteUser;
 
 @Entity
-@Table(name = "product")
+@Table(name = "product", indexes = {
+    @Index(name = "idx_product_category_price_id", columnList = "category_id, price, id"),
+    @Index(name = "idx_product_category_created_at_id", columnList = "category_id, created_at, id"),
+    @Index(name = "idx_product_price_id", columnList = "price, id"),
+    @Index(name = "idx_product_created_at_id", columnList = "created_at, id")
+})
 @Data
 @Document(indexName = "products")
+@Setting(settingPath = "elasticsearch/product-settings.json")
+@NamedEntityGraph(name = "Product.shippingOptions", attributeNodes = @NamedAttributeNode("shippingOptions"))
+@NamedEntityGraph(name = "Product.variants", attributeNodes = @NamedAttributeNode("variants"))
 public class Product {
     @Id
     private Long id;
@@ -26,7 +38,15 @@ public class Product {
     @JoinColumn(name = "seller_id")
     private SiteUser seller;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    // name.autocomplete holds edge n-grams for typeahead, name.keyword collapses duplicate names
+    @MultiField(
+        mainField = @Field(type = FieldType.Text, analyzer = "standard"),
+        otherFields = {
+            @InnerField(suffix = "autocomplete", type = FieldType.Text,
+                        analyzer = "autocomplete_index", searchAnalyzer = "autocomplete_search"),
+            @InnerField(suffix = "keyword", type = FieldType.Keyword, ignoreAbove = 256)
+        }
+    )
     private String name;
 
     @Field(type = FieldType.Text, analyzer = "standard")
@@ -38,17 +58,24 @@ public class Product {
     @Field(type = FieldType.Keyword)
     private String barcode;
 
+    @Field(type = FieldType.Double)
     private java.math.BigDecimal price;
     private java.math.BigDecimal originalPrice;
     private java.math.BigDecimal discount;
+
+    @Field(type = FieldType.Double)
     private Double rating;
+
+    @Field(type = FieldType.Keyword)
     private String condition;
     private java.time.LocalDateTime createdAt;
     private java.time.LocalDateTime updatedAt;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<ShippingOption> shippingOptions;
     
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     private List<ProductVariant> variants;
 } 
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.example.product.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending change to the Elasticsearch products index, written in the same transaction
+ * as the JPA change it describes and removed once the indexer has applied it.
+ */
+@Entity
+@Table(name = "product_index_outbox", indexes = {
+    @Index(name = "idx_product_index_outbox_next_attempt", columnList = "next_attempt_at, id")
+})
+@Data
+@NoArgsConstructor
+public class ProductIndexOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+    private int attempts;
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+
+    public static ProductIndexOutbox of(Long productId, Operation operation) {
+        ProductIndexOutbox entry = new ProductIndexOutbox();
+        entry.setProductId(productId);
+        entry.setOperation(operation);
+        entry.setCreatedAt(LocalDateTime.now());
+        entry.setNextAttemptAt(entry.getCreatedAt());
+        return entry;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.product.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single row that holds outbox indexing back on every replica while a full reindex builds a
+ * new index. The reindex holds it as a lease it keeps renewing, so a node that dies mid-rebuild
+ * stops pausing the cluster once {@code pausedUntil} has passed.
+ */
+@Entity
+@Table(name = "product_index_pause")
+@Data
+@NoArgsConstructor
+public class ProductIndexPause {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private String owner;
+    private LocalDateTime pausedUntil;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
+@Table(indexes = @Index(name = "idx_product_item_product_price", columnList = "product_id, price"))
 public class ProductItem {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,82 @@
+package com.example.product.mapper;
+
+import com.example.commonentities.SiteUser;
+import com.example.product.entity.Product;
+import com.example.product.entity.ProductCategory;
+import com.example.product.entity.ProductVariant;
+import com.example.product.entity.ShippingOption;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the detached copy of a {@link Product} that is written to Elasticsearch. The JPA
+ * entity cannot be indexed as-is: its child rows point back at the product and the seller
+ * carries account data, so only the searchable fields and ids are copied.
+ */
+@Component
+public class ProductDocumentMapper {
+
+    public Product toDocument(Product product) {
+        Product document = new Product();
+        document.setId(product.getId());
+        document.setName(product.getName());
+        document.setDescription(product.getDescription());
+        document.setProductImage(product.getProductImage());
+        document.setBarcode(product.getBarcode());
+        document.setPrice(product.getPrice());
+        document.setOriginalPrice(product.getOriginalPrice());
+        document.setDiscount(product.getDiscount());
+        document.setRating(product.getRating());
+        document.setCondition(product.getCondition());
+        document.setCreatedAt(product.getCreatedAt());
+        document.setUpdatedAt(product.getUpdatedAt());
+
+        if (product.getCategory() != null) {
+            ProductCategory category = new ProductCategory();
+            category.setId(product.getCategory().getId());
+            category.setCategoryName(product.getCategory().getCategoryName());
+            document.setCategory(category);
+        }
+        if (product.getSeller() != null) {
+            SiteUser seller = new SiteUser();
+            seller.setId(product.getSeller().getId());
+            document.setSeller(seller);
+        }
+        if (product.getShippingOptions() != null) {
+            document.setShippingOptions(product.getShippingOptions().stream()
+                    .map(this::copyShippingOption)
+                    .collect(Collectors.toList()));
+        }
+        if (product.getVariants() != null) {
+            document.setVariants(product.getVariants().stream()
+                    .map(this::copyVariant)
+                    .collect(Collectors.toList()));
+        }
+        return document;
+    }
+
+    public List<Product> toDocuments(List<Product> products) {
+        return products.stream().map(this::toDocument).collect(Collectors.toList());
+    }
+
+    private ShippingOption copyShippingOption(ShippingOption option) {
+        ShippingOption copy = new ShippingOption();
+        copy.setId(option.getId());
+        copy.setType(option.getType());
+        copy.setDuration(option.getDuration());
+        copy.setPrice(option.getPrice());
+        return copy;
+    }
+
+    private ProductVariant copyVariant(ProductVariant variant) {
+        ProductVariant copy = new ProductVariant();
+        copy.setId(variant.getId());
+        copy.setColor(variant.getColor());
+        copy.setImage(variant.getImage());
+        copy.setSize(variant.getSize());
+        copy.setPrice(variant.getPrice());
+        return copy;
+    }
+}
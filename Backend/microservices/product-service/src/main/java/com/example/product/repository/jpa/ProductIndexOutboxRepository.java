@@ -0,0 +1,16 @@
+package com.example.product.repository.jpa;
+
+import com.example.product.entity.ProductIndexOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductIndexOutboxRepository extends JpaRepository<ProductIndexOutbox, Long> {
+    // SKIP LOCKED lets several product-service replicas drain the outbox without handing out the same rows
+    @Query(value = "SELECT * FROM product_index_outbox WHERE next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ProductIndexOutbox> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,31 @@
+package com.example.product.repository.jpa;
+
+import com.example.product.entity.ProductIndexPause;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface ProductIndexPauseRepository extends JpaRepository<ProductIndexPause, Integer> {
+    // Creates the row on first use and only takes it over once the previous holder's lease has run out
+    @Modifying
+    @Query(value = "INSERT INTO product_index_pause (id, owner, paused_until) VALUES (1, :owner, :until) " +
+                   "ON CONFLICT (id) DO UPDATE SET owner = EXCLUDED.owner, paused_until = EXCLUDED.paused_until " +
+                   "WHERE product_index_pause.paused_until IS NULL OR product_index_pause.paused_until < :now",
+           nativeQuery = true)
+    int acquire(@Param("owner") String owner, @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ProductIndexPause p SET p.pausedUntil = :until " +
+           "WHERE p.id = 1 AND p.owner = :owner AND p.pausedUntil >= :now")
+    int renew(@Param("owner") String owner, @Param("until") LocalDateTime until, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ProductIndexPause p SET p.pausedUntil = NULL WHERE p.id = 1 AND p.owner = :owner")
+    int release(@Param("owner") String owner);
+
+    @Query("SELECT COUNT(p) > 0 FROM ProductIndexPause p WHERE p.id = 1 AND p.pausedUntil > :now")
+    boolean isPaused(@Param("now") LocalDateTime now);
+}
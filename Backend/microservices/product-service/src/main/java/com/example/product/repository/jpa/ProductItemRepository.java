@@ -1,7 +1,19 @@
 package com.example.product.repository.jpa;
 
+import com.example.product.dto.ProductItemPriceDTO;
 import com.example.product.entity.ProductItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface ProductItemRepository extends JpaRepository<ProductItem, Long> {
-} 
\ No newline at end of file
+
+    @Query("SELECT new com.example.product.dto.ProductItemPriceDTO(i.id, p.id, p.category.id, p.name, " +
+           "COALESCE(i.price, p.price), p.originalPrice, i.qtyInStock, " +
+           "(SELECT MIN(s.price) FROM ShippingOption s WHERE s.product = p)) " +
+           "FROM ProductItem i JOIN i.product p WHERE i.id IN :ids")
+    List<ProductItemPriceDTO> findPricesByIdIn(@Param("ids") Collection<Long> ids);
+}
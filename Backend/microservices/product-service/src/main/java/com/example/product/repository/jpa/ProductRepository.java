@@ -1,14 +1,34 @@
 package com.example.product.repository.jpa;
 
+import com.example.product.dto.ProductSummaryDTO;
 import com.example.product.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.repository.query.Param;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    String SUMMARY_SELECT = "SELECT new com.example.product.dto.ProductSummaryDTO(" +
+           "p.id, p.category.id, p.seller.id, p.name, p.productImage, p.price, " +
+           "p.originalPrice, p.discount, p.rating, p.condition, p.createdAt) FROM Product p ";
+
+    // Item price bounds are checked with EXISTS so one product never yields several rows; they
+    // filter the rows the index range returns and never pick where the scan starts
+    String PRICE_FILTER = "((:minPrice IS NULL AND :maxPrice IS NULL) OR EXISTS (" +
+           "SELECT 1 FROM ProductItem pi WHERE pi.product = p " +
+           "AND (:minPrice IS NULL OR pi.price >= :minPrice) " +
+           "AND (:maxPrice IS NULL OR pi.price <= :maxPrice))) ";
+
     @Query("SELECT DISTINCT p FROM Product p LEFT JOIN ProductItem pi ON pi.product = p " +
            "WHERE (:categoryId IS NULL OR p.category.id = :categoryId) " +
            "AND (:minPrice IS NULL OR pi.price >= :minPrice) " +
@@ -21,4 +41,151 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.shippingOptions WHERE p.id = :id")
     Optional<Product> findByIdWithShippingOptions(@Param("id") Long id);
-} 
\ No newline at end of file
+
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id IN :ids")
+    List<Product> findAllWithCategoryByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Read off the end of the (price, id) index
+    @Query("SELECT MAX(p.price) FROM Product p")
+    BigDecimal findMaxPrice();
+
+    // Keyset scroll over the whole catalog for reindexing
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.id > :lastId ORDER BY p.id")
+    List<Product> findChunkWithCategoryAfter(@Param("lastId") Long lastId, Limit limit);
+
+    // Server-side cursor; must be consumed inside a transaction for the fetch size to apply
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
+
+    // Returns [id, name, rating] rows for building the in-memory autocomplete index
+    @Query("SELECT p.id, p.name, p.rating FROM Product p WHERE p.id > :lastId ORDER BY p.id")
+    List<Object[]> findNameChunkAfter(@Param("lastId") Long lastId, Limit limit);
+
+    // Shipping options and variants are both bags, so they are fetched by two queries instead of one join
+    @EntityGraph("Product.shippingOptions")
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> fetchShippingOptionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph("Product.variants")
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> fetchVariantsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Listing queries come in first-page and next-page forms, with and without a category, so
+    // the category and the row-value seek are plain index range conditions rather than
+    // ":x IS NULL OR ..." filters the planner cannot use to start the scan at the cursor
+    @Query(SUMMARY_SELECT + "WHERE p.price IS NOT NULL AND " + PRICE_FILTER + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummaryDTO> findSummariesByPriceAsc(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE (p.price, p.id) > (:lastPrice, :lastId) AND " + PRICE_FILTER +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummaryDTO> findSummariesByPriceAscAfter(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("lastPrice") BigDecimal lastPrice,
+        @Param("lastId") Long lastId,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND p.price IS NOT NULL AND " + PRICE_FILTER +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummaryDTO> findCategorySummariesByPriceAsc(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND (p.price, p.id) > (:lastPrice, :lastId) AND " +
+           PRICE_FILTER + "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummaryDTO> findCategorySummariesByPriceAscAfter(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("lastPrice") BigDecimal lastPrice,
+        @Param("lastId") Long lastId,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.price IS NOT NULL AND " + PRICE_FILTER + "ORDER BY p.price DESC, p.id DESC")
+    List<ProductSummaryDTO> findSummariesByPriceDesc(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE (p.price, p.id) < (:lastPrice, :lastId) AND " + PRICE_FILTER +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<ProductSummaryDTO> findSummariesByPriceDescAfter(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("lastPrice") BigDecimal lastPrice,
+        @Param("lastId") Long lastId,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND p.price IS NOT NULL AND " + PRICE_FILTER +
+           "ORDER BY p.price DESC, p.id DESC")
+    List<ProductSummaryDTO> findCategorySummariesByPriceDesc(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND (p.price, p.id) < (:lastPrice, :lastId) AND " +
+           PRICE_FILTER + "ORDER BY p.price DESC, p.id DESC")
+    List<ProductSummaryDTO> findCategorySummariesByPriceDescAfter(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("lastPrice") BigDecimal lastPrice,
+        @Param("lastId") Long lastId,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.createdAt IS NOT NULL AND " + PRICE_FILTER +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDTO> findSummariesNewestFirst(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE (p.createdAt, p.id) < (:lastCreatedAt, :lastId) AND " + PRICE_FILTER +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDTO> findSummariesNewestFirstAfter(
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("lastCreatedAt") LocalDateTime lastCreatedAt,
+        @Param("lastId") Long lastId,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND p.createdAt IS NOT NULL AND " + PRICE_FILTER +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDTO> findCategorySummariesNewestFirst(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        Limit limit
+    );
+
+    @Query(SUMMARY_SELECT + "WHERE p.category.id = :categoryId AND (p.createdAt, p.id) < (:lastCreatedAt, :lastId) AND " +
+           PRICE_FILTER + "ORDER BY p.createdAt DESC, p.id DESC")
+    List<ProductSummaryDTO> findCategorySummariesNewestFirstAfter(
+        @Param("categoryId") Long categoryId,
+        @Param("minPrice") BigDecimal minPrice,
+        @Param("maxPrice") BigDecimal maxPrice,
+        @Param("lastCreatedAt") LocalDateTime lastCreatedAt,
+        @Param("lastId") Long lastId,
+        Limit limit
+    );
+}
@@ -0,0 +1,20 @@
+package com.example.product.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Delivers each invalidation to the subscribers registered in this JVM. */
+public class InMemoryProductCacheInvalidationBus implements ProductCacheInvalidationBus {
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Long productId) {
+        listeners.forEach(listener -> listener.accept(productId));
+    }
+
+    @Override
+    public void subscribe(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+}
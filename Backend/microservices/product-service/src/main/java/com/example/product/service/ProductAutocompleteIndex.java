@@ -0,0 +1,205 @@
+package com.example.product.service;
+
+import com.example.product.entity.Product;
+import com.example.product.repository.jpa.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * In-JVM typeahead over product names. A {@link ProductNameIndex} snapshot is rebuilt from
+ * Postgres on a fixed delay; names indexed since the last snapshot are kept in a small overlay
+ * so new products show up without waiting for the next rebuild. The overlay is looked up by
+ * word prefix like the snapshot, and a rebuild starts early once it holds more than
+ * {@code overlay-max-size} names, so a bulk import cannot turn every keystroke into a scan.
+ * Removed products disappear at the next rebuild. Rebuilds run on their own thread so a large catalog never holds up the
+ * shared scheduler, which also drives the outbox indexer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductAutocompleteIndex {
+
+    private final ProductRepository productRepository;
+
+    private volatile ProductNameIndex snapshot;
+    private volatile OverlayIndex overlay = new OverlayIndex();
+    // Held by overlay writes and by the swap, so no write can land in a map that is being replaced
+    private final Object overlayLock = new Object();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    @Value("${product.autocomplete.in-memory.enabled:false}")
+    private boolean enabled;
+
+    @Value("${product.autocomplete.in-memory.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${product.autocomplete.in-memory.overlay-max-size:5000}")
+    private int overlayMaxSize;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Empty when disabled, not built yet, or nothing matches; callers then fall back to Elasticsearch. */
+    public List<String> suggest(String prefix, int limit) {
+        ProductNameIndex current = snapshot;
+        if (!enabled || current == null) {
+            return List.of();
+        }
+        Map<String, ProductNameIndex.Suggestion> merged = new LinkedHashMap<>();
+        for (ProductNameIndex.Suggestion suggestion : current.lookup(prefix, limit)) {
+            merged.put(ProductNameIndex.normalize(suggestion.getName()), suggestion);
+        }
+        List<String> tokens = ProductNameIndex.tokenize(prefix);
+        if (!tokens.isEmpty()) {
+            overlay.lookup(tokens).forEach((name, entry) ->
+                    merged.merge(name, entry.suggestion, (a, b) -> a.getScore() >= b.getScore() ? a : b));
+        }
+        return merged.values().stream()
+                .sorted(Comparator.comparingDouble(ProductNameIndex.Suggestion::getScore).reversed())
+                .limit(limit)
+                .map(ProductNameIndex.Suggestion::getName)
+                .collect(Collectors.toList());
+    }
+
+    /** Makes freshly indexed names visible before the next snapshot. */
+    public void onProductsIndexed(Collection<Product> products) {
+        if (!enabled) {
+            return;
+        }
+        int size;
+        synchronized (overlayLock) {
+            long now = System.nanoTime();
+            for (Product product : products) {
+                if (product.getName() != null && !product.getName().isBlank()) {
+                    String display = product.getName().trim();
+                    overlay.put(ProductNameIndex.normalize(display), new Overlay(
+                            new ProductNameIndex.Suggestion(display, score(product.getRating())), now));
+                }
+            }
+            size = overlay.size();
+        }
+        if (size > overlayMaxSize) {
+            scheduleRefresh();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${product.autocomplete.in-memory.initial-delay-ms:10000}",
+               fixedDelayString = "${product.autocomplete.in-memory.refresh-interval-ms:300000}")
+    public void scheduleRefresh() {
+        // Skipped while the previous rebuild is still running, so slow rebuilds never queue up
+        if (!enabled || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.submit(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Autocomplete index rebuild failed: {}", e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    private void refresh() {
+        long startedAt = System.nanoTime();
+        ProductNameIndex.Builder builder = ProductNameIndex.builder();
+        long lastId = 0;
+        while (true) {
+            List<Object[]> rows = productRepository.findNameChunkAfter(lastId, Limit.of(chunkSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            for (Object[] row : rows) {
+                builder.add((String) row[1], score((Double) row[2]));
+            }
+            lastId = (Long) rows.get(rows.size() - 1)[0];
+        }
+        ProductNameIndex built = builder.build();
+
+        // Overlay entries older than this build are already part of the new snapshot
+        synchronized (overlayLock) {
+            OverlayIndex remaining = new OverlayIndex();
+            overlay.byName.forEach((name, entry) -> {
+                if (entry.addedAt - startedAt > 0) {
+                    remaining.put(name, entry);
+                }
+            });
+            snapshot = built;
+            overlay = remaining;
+        }
+        log.info("Autocomplete index rebuilt: {} names, ~{} KB, {} ms", built.size(),
+                built.estimatedBytes() / 1024, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private static float score(Double rating) {
+        return rating == null ? 0f : rating.floatValue();
+    }
+
+    private static final class Overlay {
+        private final ProductNameIndex.Suggestion suggestion;
+        private final List<String> words;
+        private final long addedAt;
+
+        private Overlay(ProductNameIndex.Suggestion suggestion, long addedAt) {
+            this.suggestion = suggestion;
+            this.words = ProductNameIndex.tokenize(suggestion.getName());
+            this.addedAt = addedAt;
+        }
+    }
+
+    /**
+     * Overlay names by normalized name, plus a sorted "word NUL name" key per word so a query
+     * only visits names that have a word starting with its longest word. Written under
+     * overlayLock, read without it.
+     */
+    private static final class OverlayIndex {
+        private final Map<String, Overlay> byName = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, String> byWord = new ConcurrentSkipListMap<>();
+
+        private void put(String name, Overlay entry) {
+            byName.put(name, entry);
+            for (String word : entry.words) {
+                byWord.put(word + '\0' + name, name);
+            }
+        }
+
+        private int size() {
+            return byName.size();
+        }
+
+        private Map<String, Overlay> lookup(List<String> tokens) {
+            String key = tokens.stream().max(Comparator.comparingInt(String::length)).get();
+            Map<String, Overlay> found = new LinkedHashMap<>();
+            Set<String> considered = new HashSet<>();
+            for (String name : byWord.subMap(key, key + Character.MAX_VALUE).values()) {
+                Overlay entry = byName.get(name);
+                if (considered.add(name) && entry != null && ProductNameIndex.matches(entry.words, tokens)) {
+                    found.put(name, entry);
+                }
+            }
+            return found;
+        }
+    }
+}
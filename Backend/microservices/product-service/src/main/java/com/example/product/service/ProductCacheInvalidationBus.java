@@ -0,0 +1,14 @@
+package com.example.product.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries product-cache invalidations between product-service replicas. An implementation
+ * backed by a message broker delivers each published id to the subscribers on every node,
+ * including the publisher's own.
+ */
+public interface ProductCacheInvalidationBus {
+    void publish(Long productId);
+
+    void subscribe(Consumer<Long> listener);
+}
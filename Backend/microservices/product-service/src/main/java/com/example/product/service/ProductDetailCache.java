@@ -0,0 +1,76 @@
+package com.example.product.service;
+
+import com.example.product.dto.CacheStatsDTO;
+import com.example.product.dto.ProductDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of product detail DTOs, bounded by size and time-to-live. Writers call
+ * {@link #invalidate(Long)}, which takes effect after their transaction commits and is
+ * broadcast to the other replicas through the {@link ProductCacheInvalidationBus}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductDetailCache {
+
+    private final ProductCacheInvalidationBus invalidationBus;
+    private final AtomicLong invalidations = new AtomicLong();
+    private Cache<Long, ProductDTO> cache;
+
+    @Value("${product.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${product.cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        invalidationBus.subscribe(this::evictLocally);
+    }
+
+    public ProductDTO get(Long id, Function<Long, ProductDTO> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(Long id) {
+        // Evicting before commit would let a concurrent read cache the old row again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidationBus.publish(id);
+                }
+            });
+        } else {
+            invalidationBus.publish(id);
+        }
+    }
+
+    public CacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDTO(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount(), invalidations.get());
+    }
+
+    private void evictLocally(Long id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+}
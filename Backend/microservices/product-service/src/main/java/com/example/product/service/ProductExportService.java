@@ -0,0 +1,113 @@
+package com.example.product.service;
+
+import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.jpa.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole catalog as JSON while reading it, so heap use does not depend on the
+ * catalog size. Products come from a server-side cursor and are handled in chunks: each
+ * chunk gets its shipping options and variants in two queries, is written out, and is then
+ * cleared from the persistence context.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // Output is flushed once per chunk rather than after every product
+    private ObjectWriter productWriter;
+
+    @PostConstruct
+    void initWriter() {
+        productWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @param ndjson one product per line when true, otherwise a single JSON array
+     */
+    public void exportCatalog(OutputStream out, boolean ndjson) throws IOException {
+        long[] exported = {0};
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // A failed export must not be closed into JSON that looks complete
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            // Lines are separated by the newline alone, not by the default space between root values
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    try (Stream<Product> products = productRepository.streamAllOrderById()) {
+                        List<Product> chunk = new ArrayList<>(CHUNK_SIZE);
+                        products.forEach(product -> {
+                            chunk.add(product);
+                            if (chunk.size() == CHUNK_SIZE) {
+                                exported[0] += writeChunk(generator, chunk, ndjson);
+                            }
+                        });
+                        exported[0] += writeChunk(generator, chunk, ndjson);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+        log.info("Exported {} products", exported[0]);
+    }
+
+    private int writeChunk(JsonGenerator generator, List<Product> chunk, boolean ndjson) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = chunk.stream().map(Product::getId).collect(Collectors.toList());
+        productRepository.fetchShippingOptionsByIdIn(ids);
+        productRepository.fetchVariantsByIdIn(ids);
+        try {
+            for (Product product : chunk) {
+                productWriter.writeValue(generator, productMapper.toDto(product));
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+            }
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int written = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        return written;
+    }
+}
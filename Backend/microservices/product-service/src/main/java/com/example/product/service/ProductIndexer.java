@@ -0,0 +1,130 @@
+package com.example.product.service;
+
+import com.example.product.entity.Product;
+import com.example.product.entity.ProductIndexOutbox;
+import com.example.product.entity.ProductIndexPause;
+import com.example.product.mapper.ProductDocumentMapper;
+import com.example.product.repository.elasticsearch.ProductSearchRepository;
+import com.example.product.repository.jpa.ProductIndexOutboxRepository;
+import com.example.product.repository.jpa.ProductIndexPauseRepository;
+import com.example.product.repository.jpa.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Drains {@link ProductIndexOutbox} into Elasticsearch. Each batch becomes one bulk index
+ * request and one delete-by-ids request. Only one batch is in flight at a time and a run
+ * stops after a fixed number of batches, so catalog imports queue up in the outbox instead
+ * of flooding Elasticsearch. Failed batches are retried with exponential backoff. Nothing is
+ * drained while {@link ProductReindexService} holds the cluster-wide {@link ProductIndexPause}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductIndexer {
+
+    private final ProductIndexOutboxRepository outboxRepository;
+    private final ProductRepository productRepository;
+    private final ProductSearchRepository productSearchRepository;
+    private final ProductDocumentMapper productDocumentMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductAutocompleteIndex productAutocompleteIndex;
+    private final ProductIndexPauseRepository pauseRepository;
+
+    @Value("${product.index.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.index.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${product.index.max-backoff-seconds:300}")
+    private long maxBackoffSeconds;
+
+    @Scheduled(fixedDelayString = "${product.index.poll-interval-ms:1000}")
+    public void drainOutbox() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Integer processed = transactionTemplate.execute(status -> processBatch());
+            if (processed == null || processed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int processBatch() {
+        List<ProductIndexOutbox> batch = outboxRepository.lockNextBatch(LocalDateTime.now(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // Checked after the rows are locked: a reindex that pauses later starts its scroll after
+        // this point and so already sees every change behind these entries
+        if (pauseRepository.isPaused(LocalDateTime.now())) {
+            return 0;
+        }
+
+        // Entries are in id order, so a later change to the same product supersedes an earlier one
+        Map<Long, ProductIndexOutbox.Operation> latest = new LinkedHashMap<>();
+        for (ProductIndexOutbox entry : batch) {
+            latest.put(entry.getProductId(), entry.getOperation());
+        }
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deleteIds = new ArrayList<>();
+        latest.forEach((productId, operation) ->
+                (operation == ProductIndexOutbox.Operation.DELETE ? deleteIds : upsertIds).add(productId));
+
+        // Database reads stay outside the try: a failing JPA call marks the transaction
+        // rollback-only, which would also roll back the retry bookkeeping below
+        List<Product> products = List.of();
+        if (!upsertIds.isEmpty()) {
+            products = productRepository.findAllWithCategoryByIdIn(upsertIds);
+            productRepository.fetchShippingOptionsByIdIn(upsertIds);
+            productRepository.fetchVariantsByIdIn(upsertIds);
+
+            // A product deleted after its upsert was queued must leave the index too
+            Set<Long> found = products.stream().map(Product::getId).collect(Collectors.toSet());
+            upsertIds.stream().filter(id -> !found.contains(id)).forEach(deleteIds::add);
+        }
+
+        List<Product> documents = productDocumentMapper.toDocuments(products);
+
+        try {
+            if (!documents.isEmpty()) {
+                productSearchRepository.saveAll(documents);
+            }
+            if (!deleteIds.isEmpty()) {
+                productSearchRepository.deleteAllById(deleteIds);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Bulk indexing of {} outbox entries failed, will retry: {}", batch.size(), e.getMessage());
+            scheduleRetry(batch);
+            return 0;
+        }
+        if (!products.isEmpty()) {
+            productAutocompleteIndex.onProductsIndexed(products);
+        }
+        outboxRepository.deleteAllInBatch(batch);
+        log.debug("Indexed {} and removed {} products from {} outbox entries", products.size(), deleteIds.size(), batch.size());
+        return batch.size();
+    }
+
+    private void scheduleRetry(List<ProductIndexOutbox> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        for (ProductIndexOutbox entry : batch) {
+            entry.setAttempts(entry.getAttempts() + 1);
+            long backoff = Math.min(maxBackoffSeconds, 1L << Math.min(entry.getAttempts(), 20));
+            entry.setNextAttemptAt(now.plusSeconds(backoff));
+        }
+        outboxRepository.saveAll(batch);
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.product.service;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable, compact prefix index of product names for typeahead.
+ * <p>
+ * Matching follows the {@code name.autocomplete} field in Elasticsearch: names and queries
+ * are split into lower-cased, accent-folded words, and a name matches when every query word
+ * is a prefix of one of its words, so "iph" finds "Apple iPhone".
+ * <p>
+ * Names are deduplicated by their lower-cased form, sorted, and packed into a single UTF-8
+ * byte array addressed by an offsets array, with a parallel array of scores. Every word of
+ * every name is packed the same way into a sorted word array pointing back at its name. The
+ * longest query word maps to a contiguous range of words found by binary search; the best
+ * {@code k} names in that range are picked with a bounded heap, skipping whole blocks whose
+ * maximum score cannot make the cut. Only the entries compared during the search, names
+ * checked against the other query words, and the returned names are ever decoded.
+ */
+public final class ProductNameIndex {
+
+    private static final int BLOCK_SIZE = 64;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final byte[] names;
+    private final int[] nameOffsets;
+    private final float[] scores;
+    private final byte[] words;
+    private final int[] wordOffsets;
+    private final int[] wordNames;
+    private final float[] blockMax;
+
+    private ProductNameIndex(byte[] names, int[] nameOffsets, float[] scores,
+                             byte[] words, int[] wordOffsets, int[] wordNames) {
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.scores = scores;
+        this.words = words;
+        this.wordOffsets = wordOffsets;
+        this.wordNames = wordNames;
+        this.blockMax = new float[(wordNames.length + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        Arrays.fill(blockMax, Float.NEGATIVE_INFINITY);
+        for (int i = 0; i < wordNames.length; i++) {
+            blockMax[i / BLOCK_SIZE] = Math.max(blockMax[i / BLOCK_SIZE], scores[wordNames[i]]);
+        }
+    }
+
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Lower-cased, accent-folded words of a name or query, in order of appearance. */
+    public static List<String> tokenize(String text) {
+        String folded = MARKS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /** Whether every query word is a prefix of some word of the name. */
+    public static boolean matches(String name, List<String> queryTokens) {
+        return matches(tokenize(name), queryTokens);
+    }
+
+    /** As {@link #matches(String, List)}, for a name already split into words. */
+    public static boolean matches(List<String> nameTokens, List<String> queryTokens) {
+        for (String query : queryTokens) {
+            if (nameTokens.stream().noneMatch(word -> word.startsWith(query))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return scores.length;
+    }
+
+    /** Heap held by the index arrays, excluding the object headers of this instance. */
+    public long estimatedBytes() {
+        return 7 * ARRAY_HEADER_BYTES + names.length + 4L * nameOffsets.length + 4L * scores.length
+                + words.length + 4L * wordOffsets.length + 4L * wordNames.length + 4L * blockMax.length;
+    }
+
+    /** Up to {@code limit} names matching every word of {@code prefix}, best score first. */
+    public List<Suggestion> lookup(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        // The longest word narrows the range the most; the others are checked per candidate
+        String key = tokens.stream().max(Comparator.comparingInt(String::length)).get();
+        int from = lowerBound(key);
+        int to = lowerBound(key + Character.MAX_VALUE);
+        if (from >= to) {
+            return List.of();
+        }
+
+        // Min-heap on score holding the current top names; ties keep the alphabetically first
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Float.compare(scores[a], scores[b]);
+            return byScore != 0 ? byScore : Integer.compare(b, a);
+        });
+        // A name shows up once per matching word
+        Set<Integer> considered = new HashSet<>();
+        int i = from;
+        while (i < to) {
+            int blockEnd = Math.min(to, (i / BLOCK_SIZE + 1) * BLOCK_SIZE);
+            if (heap.size() == limit && blockMax[i / BLOCK_SIZE] <= scores[heap.peek()]) {
+                i = blockEnd;
+                continue;
+            }
+            for (; i < blockEnd; i++) {
+                int entry = wordNames[i];
+                if (heap.size() == limit && scores[entry] <= scores[heap.peek()]) {
+                    continue;
+                }
+                if (!considered.add(entry) || (tokens.size() > 1 && !matches(name(entry), tokens))) {
+                    continue;
+                }
+                heap.add(entry);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<Integer> best = new ArrayList<>(heap);
+        best.sort(heap.comparator().reversed());
+        List<Suggestion> result = new ArrayList<>(best.size());
+        for (int entry : best) {
+            result.add(new Suggestion(name(entry), scores[entry]));
+        }
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = wordNames.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (word(mid).compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private String name(int entry) {
+        return new String(names, nameOffsets[entry], nameOffsets[entry + 1] - nameOffsets[entry], StandardCharsets.UTF_8);
+    }
+
+    private String word(int entry) {
+        return new String(words, wordOffsets[entry], wordOffsets[entry + 1] - wordOffsets[entry], StandardCharsets.UTF_8);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Suggestion {
+        private final String name;
+        private final float score;
+
+        public Suggestion(String name, float score) {
+            this.name = name;
+            this.score = score;
+        }
+
+        public String getName() { return name; }
+        public float getScore() { return score; }
+    }
+
+    public static final class Builder {
+        private final Map<String, Suggestion> byKey = new HashMap<>();
+
+        /** Adds a name; a name seen twice keeps its highest score. */
+        public Builder add(String name, double score) {
+            if (name == null || name.isBlank()) {
+                return this;
+            }
+            String display = name.trim();
+            byKey.merge(normalize(display), new Suggestion(display, (float) score),
+                    (a, b) -> a.getScore() >= b.getScore() ? a : b);
+            return this;
+        }
+
+        public ProductNameIndex build() {
+            List<Map.Entry<String, Suggestion>> entries = new ArrayList<>(byKey.entrySet());
+            entries.sort(Map.Entry.comparingByKey());
+
+            byte[][] encoded = new byte[entries.size()][];
+            int total = 0;
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = entries.get(i).getValue().getName().getBytes(StandardCharsets.UTF_8);
+                total += encoded[i].length;
+            }
+            byte[] names = new byte[total];
+            int[] nameOffsets = new int[encoded.length + 1];
+            float[] scores = new float[encoded.length];
+            List<WordEntry> wordEntries = new ArrayList<>();
+            for (int i = 0; i < encoded.length; i++) {
+                System.arraycopy(encoded[i], 0, names, nameOffsets[i], encoded[i].length);
+                nameOffsets[i + 1] = nameOffsets[i] + encoded[i].length;
+                scores[i] = entries.get(i).getValue().getScore();
+                for (String word : new LinkedHashSet<>(tokenize(entries.get(i).getValue().getName()))) {
+                    wordEntries.add(new WordEntry(word, i));
+                }
+            }
+
+            // Word order, then name order, so ties on score still resolve alphabetically
+            wordEntries.sort(Comparator.comparing((WordEntry w) -> w.word).thenComparingInt(w -> w.name));
+            byte[][] encodedWords = new byte[wordEntries.size()][];
+            int wordTotal = 0;
+            for (int i = 0; i < encodedWords.length; i++) {
+                encodedWords[i] = wordEntries.get(i).word.getBytes(StandardCharsets.UTF_8);
+                wordTotal += encodedWords[i].length;
+            }
+            byte[] words = new byte[wordTotal];
+            int[] wordOffsets = new int[encodedWords.length + 1];
+            int[] wordNames = new int[encodedWords.length];
+            for (int i = 0; i < encodedWords.length; i++) {
+                System.arraycopy(encodedWords[i], 0, words, wordOffsets[i], encodedWords[i].length);
+                wordOffsets[i + 1] = wordOffsets[i] + encodedWords[i].length;
+                wordNames[i] = wordEntries.get(i).name;
+            }
+            return new ProductNameIndex(names, nameOffsets, scores, words, wordOffsets, wordNames);
+        }
+
+        private static final class WordEntry {
+            private final String word;
+            private final int name;
+
+            private WordEntry(String word, int name) {
+                this.word = word;
+                this.name = name;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.product.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.example.product.dto.ReindexStatusDTO;
+import com.example.product.entity.Product;
+import com.example.product.entity.ProductIndexPause;
+import com.example.product.mapper.ProductDocumentMapper;
+import com.example.product.repository.jpa.ProductIndexPauseRepository;
+import com.example.product.repository.jpa.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.AliasAction;
+import org.springframework.data.elasticsearch.core.index.AliasActionParameters;
+import org.springframework.data.elasticsearch.core.index.AliasActions;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the products index from Postgres without search downtime. The catalog is
+ * scrolled by id in fixed-size chunks, each loaded in its own short transaction, and
+ * bulk-written into a fresh versioned index created with refresh disabled and no replicas.
+ * Once loaded, the index gets its normal settings back and the {@code products} alias is
+ * moved to it in a single atomic alias request that also drops the previous index.
+ * <p>
+ * Outbox indexing is paused on every replica for the duration through the
+ * {@link ProductIndexPause} lease, so changes made meanwhile stay in the outbox and are
+ * applied to the new index after the swap. Holding the lease also keeps a second rebuild
+ * from starting on another node.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductReindexService {
+
+    private static final String ALIAS = "products";
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private final ProductRepository productRepository;
+    private final ProductDocumentMapper productDocumentMapper;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductIndexPauseRepository pauseRepository;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private volatile ReindexStatusDTO status;
+
+    @Value("${product.reindex.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${product.reindex.replicas:1}")
+    private int replicas;
+
+    @Value("${product.reindex.pause-lease-seconds:300}")
+    private long pauseLeaseSeconds;
+
+    public ReindexStatusDTO startReindex() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A reindex is already running");
+        }
+        String indexName = ALIAS + "_" + LocalDateTime.now().format(VERSION_FORMAT);
+        LocalDateTime now = LocalDateTime.now();
+        Integer acquired = transactionTemplate.execute(tx ->
+                pauseRepository.acquire(indexName, now.plusSeconds(pauseLeaseSeconds), now));
+        if (acquired == null || acquired == 0) {
+            running.set(false);
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A reindex is already running on another node");
+        }
+        status = new ReindexStatusDTO("RUNNING", indexName, 0, 0, 0, null);
+        executor.submit(() -> runReindex(indexName));
+        return status;
+    }
+
+    public ReindexStatusDTO getStatus() {
+        if (status == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No reindex has been run");
+        }
+        return status;
+    }
+
+    private void runReindex(String indexName) {
+        long start = System.currentTimeMillis();
+        long documents = 0;
+        boolean swapped = false;
+        try {
+            IndexOperations indexOps = elasticsearchOperations.indexOps(IndexCoordinates.of(indexName));
+            Settings settings = elasticsearchOperations.indexOps(Product.class).createSettings(Product.class).flatten();
+            settings.put("index.number_of_replicas", 0);
+            settings.put("index.refresh_interval", "-1");
+            indexOps.create(settings, indexOps.createMapping(Product.class));
+
+            long lastId = 0;
+            while (true) {
+                long afterId = lastId;
+                // Each chunk is its own transaction, so the persistence context never grows past one chunk
+                List<Product> documentsChunk = transactionTemplate.execute(tx -> loadChunk(afterId));
+                if (documentsChunk == null || documentsChunk.isEmpty()) {
+                    break;
+                }
+                elasticsearchOperations.save(documentsChunk, IndexCoordinates.of(indexName));
+                documents += documentsChunk.size();
+                lastId = documentsChunk.get(documentsChunk.size() - 1).getId();
+                renewPause(indexName);
+                status = progress("RUNNING", indexName, documents, start, null);
+                log.info("Reindex {}: {} documents, {} docs/s", indexName, documents,
+                        String.format("%.0f", status.getDocsPerSecond()));
+            }
+
+            restoreSettings(indexName);
+            indexOps.refresh();
+            renewPause(indexName);
+            swapAlias(indexName);
+            swapped = true;
+            status = progress("COMPLETED", indexName, documents, start, null);
+            log.info("Reindex {} completed: {} documents in {} ms ({} docs/s)", indexName, documents,
+                    status.getElapsedMs(), String.format("%.0f", status.getDocsPerSecond()));
+        } catch (Exception e) {
+            log.error("Reindex {} failed", indexName, e);
+            status = progress("FAILED", indexName, documents, start, e.getMessage());
+            IndexOperations indexOps = elasticsearchOperations.indexOps(IndexCoordinates.of(indexName));
+            if (!swapped && indexOps.exists()) {
+                indexOps.delete();
+            }
+        } finally {
+            transactionTemplate.executeWithoutResult(tx -> pauseRepository.release(indexName));
+            running.set(false);
+        }
+    }
+
+    /**
+     * Extends the pause; fails the reindex when the lease ran out, since other replicas may
+     * have drained changes into the old index in the meantime
+     */
+    private void renewPause(String indexName) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer renewed = transactionTemplate.execute(tx ->
+                pauseRepository.renew(indexName, now.plusSeconds(pauseLeaseSeconds), now));
+        if (renewed == null || renewed == 0) {
+            throw new IllegalStateException("Indexing pause lease expired");
+        }
+    }
+
+    private List<Product> loadChunk(long afterId) {
+        List<Product> products = productRepository.findChunkWithCategoryAfter(afterId, Limit.of(chunkSize));
+        if (products.isEmpty()) {
+            return products;
+        }
+        List<Long> ids = products.stream().map(Product::getId).collect(Collectors.toList());
+        productRepository.fetchShippingOptionsByIdIn(ids);
+        productRepository.fetchVariantsByIdIn(ids);
+        return productDocumentMapper.toDocuments(products);
+    }
+
+    private void restoreSettings(String indexName) throws IOException {
+        elasticsearchClient.indices().putSettings(r -> r
+                .index(indexName)
+                .settings(s -> s
+                        .numberOfReplicas(String.valueOf(replicas))
+                        .refreshInterval(t -> t.time("1s"))));
+    }
+
+    private void swapAlias(String indexName) throws IOException {
+        // Before the first swap "products" is a concrete index, which is dropped in the same request
+        List<String> previous;
+        if (elasticsearchClient.indices().existsAlias(e -> e.name(ALIAS)).value()) {
+            previous = List.copyOf(elasticsearchClient.indices().getAlias(g -> g.name(ALIAS)).result().keySet());
+        } else if (elasticsearchClient.indices().exists(e -> e.index(ALIAS)).value()) {
+            previous = List.of(ALIAS);
+        } else {
+            previous = List.of();
+        }
+
+        AliasActions actions = new AliasActions(new AliasAction.Add(AliasActionParameters.builder()
+                .withIndices(indexName)
+                .withAliases(ALIAS)
+                .build()));
+        if (!previous.isEmpty()) {
+            actions.add(new AliasAction.RemoveIndex(AliasActionParameters.builder()
+                    .withIndices(previous.toArray(new String[0]))
+                    .build()));
+        }
+        elasticsearchOperations.indexOps(IndexCoordinates.of(indexName)).alias(actions);
+    }
+
+    private ReindexStatusDTO progress(String state, String indexName, long documents, long start, String error) {
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        return new ReindexStatusDTO(state, indexName, documents, elapsed, documents * 1000.0 / elapsed, error);
+    }
+}
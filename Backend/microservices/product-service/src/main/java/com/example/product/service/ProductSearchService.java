@@ -1,25 +1,62 @@
 package com.example.product.service;
 
+import com.example.product.dto.FacetBucketDTO;
+import com.example.product.dto.FacetedSearchRequest;
+import com.example.product.dto.FacetedSearchResultDTO;
+import com.example.product.dto.ProductSummaryDTO;
+import com.example.product.dto.SearchResultPage;
 import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
 import com.example.product.repository.elasticsearch.ProductSearchRepository;
+import com.example.product.repository.jpa.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.AggregationRange;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchAllQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.RangeQuery;
+import co.elastic.clients.json.JsonData;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.MultiMatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.FuzzyQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.PrefixQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.MatchQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionScoreQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldValueFactorModifier;
+import co.elastic.clients.elasticsearch._types.query_dsl.FunctionBoostMode;
+import co.elastic.clients.elasticsearch.core.search.FieldCollapse;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
@@ -29,19 +66,38 @@ public class ProductSearchService {
     
     private final ProductSearchRepository productSearchRepository;
     private final ElasticsearchOperations elasticsearchOperations;
+    private final ProductAutocompleteIndex productAutocompleteIndex;
+    private final ProductMapper productMapper;
+    private final ProductRepository productRepository;
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ProductSearchService.class);
+    private static final int AUTOCOMPLETE_SIZE = 10;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Elasticsearch's default index.max_result_window; deeper pages need search_after
+    private static final int MAX_RESULT_WINDOW = 10_000;
+    // Elasticsearch's default track_total_hits: counting stops here unless a caller asks for exact totals
+    private static final int TOTAL_HITS_CAP = 10_000;
+    private static final int FACET_TERMS_SIZE = 20;
+    // Keeps the price histogram far below Elasticsearch's search.max_buckets
+    private static final int MAX_PRICE_BUCKETS = 1_000;
+    private static final BigDecimal MIN_PRICE_INTERVAL = new BigDecimal("0.01");
+    private static final String FACET_CATEGORY = "category";
+    private static final String FACET_PRICE = "price";
+    private static final String FACET_RATING = "rating";
+    private static final String FACET_CONDITION = "condition";
+    private static final String FACET_SHIPPING_TYPE = "shippingType";
+    private static final String[] LISTING_FIELDS = {
+        "id", "category.id", "seller.id", "name", "productImage", "price",
+        "originalPrice", "discount", "rating", "condition", "createdAt"
+    };
+
+    @Value("${product.autocomplete.popularity-weighting:true}")
+    private boolean autocompletePopularityWeighting;
 
     public List<Product> searchProducts(String query) {
         log.info("Searching products with query: {}", query);
-        
-        co.elastic.clients.elasticsearch._types.query_dsl.Query multiMatch = MultiMatchQuery.of(m -> m
-                .fields("name^2", "description")
-                .query(query)
-                .type(co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType.BestFields)
-        )._toQuery();
 
         org.springframework.data.elasticsearch.core.query.Query searchQuery = NativeQuery.builder()
-                .withQuery(multiMatch)
+                .withQuery(textQuery(query))
                 .build();
         
         SearchHits<Product> searchHits = elasticsearchOperations.search(searchQuery, Product.class);
@@ -57,17 +113,9 @@ public class ProductSearchService {
 
     public List<Product> searchByCategory(String categoryName) {
         log.info("Searching products by category: {}", categoryName);
-        
-        // Use a proper Elasticsearch query instead of the problematic repository method
-        co.elastic.clients.elasticsearch._types.query_dsl.Query categoryQuery = co.elastic.clients.elasticsearch._types.query_dsl.Query.of(q -> q
-                .term(t -> t
-                        .field("category.categoryName.keyword")
-                        .value(categoryName)
-                )
-        );
 
         org.springframework.data.elasticsearch.core.query.Query searchQuery = NativeQuery.builder()
-                .withQuery(categoryQuery)
+                .withQuery(categoryQuery(categoryName))
                 .build();
         
         SearchHits<Product> searchHits = elasticsearchOperations.search(searchQuery, Product.class);
@@ -78,15 +126,9 @@ public class ProductSearchService {
 
     public List<Product> fuzzySearch(String query) {
         log.info("Fuzzy searching products with query: {}", query);
-        
-        co.elastic.clients.elasticsearch._types.query_dsl.Query fuzzy = FuzzyQuery.of(f -> f
-                .field("name")
-                .value(query)
-                .fuzziness("AUTO")
-        )._toQuery();
 
         org.springframework.data.elasticsearch.core.query.Query searchQuery = NativeQuery.builder()
-                .withQuery(fuzzy)
+                .withQuery(fuzzyQuery(query))
                 .build();
         
         SearchHits<Product> searchHits = elasticsearchOperations.search(searchQuery, Product.class);
@@ -95,23 +137,268 @@ public class ProductSearchService {
                 .collect(Collectors.toList());
     }
 
-    public List<String> getAutocompleteSuggestions(String prefix) {
-        log.info("Getting autocomplete suggestions for: {}", prefix);
-        
-        co.elastic.clients.elasticsearch._types.query_dsl.Query prefixQuery = PrefixQuery.of(p -> p
+    public SearchResultPage<ProductSummaryDTO> searchProductsPage(String query, boolean fuzzy, int page, int size,
+                                                                  String cursor, boolean trackTotalHits) {
+        log.debug("Paged search for: {} (fuzzy={})", query, fuzzy);
+        return searchPage(fuzzy ? fuzzyQuery(query) : textQuery(query), page, size, cursor, trackTotalHits);
+    }
+
+    public SearchResultPage<ProductSummaryDTO> searchByCategoryPage(String categoryName, int page, int size,
+                                                                    String cursor, boolean trackTotalHits) {
+        log.debug("Paged category search for: {}", categoryName);
+        return searchPage(categoryQuery(categoryName), page, size, cursor, trackTotalHits);
+    }
+
+    /**
+     * Runs a listing search with an explicit page size, fetching only the listing fields.
+     * Hits are ordered by score with id as tiebreaker, so a cursor built from the last hit's
+     * sort values continues the same ordering through search_after. Hits are counted up to
+     * {@link #TOTAL_HITS_CAP} unless exact totals are asked for, which must visit every match.
+     */
+    private SearchResultPage<ProductSummaryDTO> searchPage(co.elastic.clients.elasticsearch._types.query_dsl.Query query,
+                                                           int page, int size, String cursor, boolean trackTotalHits) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(query)
+                .withSort(List.of(
+                        SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc))),
+                        SortOptions.of(s -> s.field(f -> f.field("id").order(SortOrder.Asc)))))
+                .withSourceFilter(new FetchSourceFilter(LISTING_FIELDS, null));
+        if (trackTotalHits) {
+            builder.withTrackTotalHits(true);
+        } else {
+            builder.withTrackTotalHitsUpTo(TOTAL_HITS_CAP);
+        }
+
+        if (cursor != null && !cursor.isBlank()) {
+            builder.withPageable(PageRequest.of(0, size)).withSearchAfter(decodeSearchAfter(cursor));
+        } else {
+            if (page < 0 || (long) (page + 1) * size > MAX_RESULT_WINDOW) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "page is beyond the first " + MAX_RESULT_WINDOW + " hits, use cursor instead");
+            }
+            builder.withPageable(PageRequest.of(page, size));
+        }
+
+        SearchHits<Product> searchHits = elasticsearchOperations.search(builder.build(), Product.class);
+        List<SearchHit<Product>> hits = searchHits.getSearchHits();
+        List<ProductSummaryDTO> content = hits.stream()
+                .map(hit -> productMapper.toSummaryDto(hit.getContent()))
+                .collect(Collectors.toList());
+
+        boolean exact = searchHits.getTotalHitsRelation() == TotalHitsRelation.EQUAL_TO;
+        boolean hasNext = hits.size() == size;
+        if (hasNext && exact && (cursor == null || cursor.isBlank())) {
+            hasNext = (long) page * size + hits.size() < searchHits.getTotalHits();
+        }
+        String nextCursor = hasNext && !hits.isEmpty()
+                ? encodeSearchAfter(hits.get(hits.size() - 1).getSortValues())
+                : null;
+        return new SearchResultPage<>(content, searchHits.getTotalHits(), exact, nextCursor, hasNext);
+    }
+
+    /**
+     * Rejects intervals that would split the price range into more than
+     * {@link #MAX_PRICE_BUCKETS} histogram buckets. Without a maxPrice the range runs up to the
+     * highest catalog price.
+     */
+    private void validatePriceInterval(FacetedSearchRequest request) {
+        BigDecimal interval = BigDecimal.valueOf(request.getPriceInterval());
+        if (interval.compareTo(MIN_PRICE_INTERVAL) < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "priceInterval must be at least " + MIN_PRICE_INTERVAL);
+        }
+        BigDecimal low = request.getMinPrice() != null ? request.getMinPrice() : BigDecimal.ZERO;
+        BigDecimal high = request.getMaxPrice() != null ? request.getMaxPrice() : productRepository.findMaxPrice();
+        if (high == null || high.compareTo(low) <= 0) {
+            return;
+        }
+        BigDecimal range = high.subtract(low);
+        if (range.divide(interval, 0, RoundingMode.FLOOR).compareTo(BigDecimal.valueOf(MAX_PRICE_BUCKETS)) >= 0) {
+            BigDecimal minimum = range.divide(BigDecimal.valueOf(MAX_PRICE_BUCKETS - 1), 2, RoundingMode.CEILING);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "priceInterval must be at least " + minimum.toPlainString() + " for this price range");
+        }
+    }
+
+    private String encodeSearchAfter(List<Object> sortValues) {
+        String raw = sortValues.get(0) + "|" + sortValues.get(1);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Object> decodeSearchAfter(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return List.of(Double.valueOf(parts[0]), Long.valueOf(parts[1]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * Returns one page of hits plus all facet counts in a single Elasticsearch request.
+     * Facet selections are applied as non-scoring filters, so counts reflect the current
+     * drill-down and the filters are cacheable by Elasticsearch.
+     */
+    public FacetedSearchResultDTO facetedSearch(FacetedSearchRequest request) {
+        log.debug("Faceted search: {}", request);
+        if (request.getSize() < 1 || request.getSize() > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (request.getPage() < 0 || (long) (request.getPage() + 1) * request.getSize() > MAX_RESULT_WINDOW) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page is beyond the first " + MAX_RESULT_WINDOW + " hits");
+        }
+        validatePriceInterval(request);
+
+        List<co.elastic.clients.elasticsearch._types.query_dsl.Query> filters = new ArrayList<>();
+        if (request.getCategoryName() != null) {
+            filters.add(categoryQuery(request.getCategoryName()));
+        }
+        if (request.getMinPrice() != null || request.getMaxPrice() != null) {
+            filters.add(RangeQuery.of(r -> {
+                r.field("price");
+                if (request.getMinPrice() != null) {
+                    r.gte(JsonData.of(request.getMinPrice()));
+                }
+                if (request.getMaxPrice() != null) {
+                    r.lte(JsonData.of(request.getMaxPrice()));
+                }
+                return r;
+            })._toQuery());
+        }
+        if (request.getMinRating() != null) {
+            filters.add(RangeQuery.of(r -> r.field("rating").gte(JsonData.of(request.getMinRating())))._toQuery());
+        }
+        if (request.getCondition() != null) {
+            filters.add(TermQuery.of(t -> t.field("condition").value(request.getCondition()))._toQuery());
+        }
+        if (request.getShippingType() != null) {
+            filters.add(TermQuery.of(t -> t.field("shippingOptions.type.keyword").value(request.getShippingType()))._toQuery());
+        }
+        co.elastic.clients.elasticsearch._types.query_dsl.Query query = BoolQuery.of(b -> b
+                .must(request.getQuery() == null || request.getQuery().isBlank()
+                        ? MatchAllQuery.of(m -> m)._toQuery()
+                        : textQuery(request.getQuery()))
+                .filter(filters)
+        )._toQuery();
+
+        NativeQuery searchQuery = NativeQuery.builder()
+                .withQuery(query)
+                .withSort(List.of(
+                        SortOptions.of(s -> s.score(sc -> sc.order(SortOrder.Desc))),
+                        SortOptions.of(s -> s.field(f -> f.field("id").order(SortOrder.Asc)))))
+                .withSourceFilter(new FetchSourceFilter(LISTING_FIELDS, null))
+                .withPageable(PageRequest.of(request.getPage(), request.getSize()))
+                .withAggregation(FACET_CATEGORY, Aggregation.of(a -> a
+                        .terms(t -> t.field("category.categoryName.keyword").size(FACET_TERMS_SIZE))))
+                .withAggregation(FACET_PRICE, Aggregation.of(a -> a
+                        .histogram(h -> h.field("price").interval(request.getPriceInterval()).minDocCount(1))))
+                .withAggregation(FACET_RATING, Aggregation.of(a -> a
+                        .range(r -> r.field("rating").ranges(
+                                AggregationRange.of(ar -> ar.key("4+").from("4")),
+                                AggregationRange.of(ar -> ar.key("3+").from("3")),
+                                AggregationRange.of(ar -> ar.key("2+").from("2")),
+                                AggregationRange.of(ar -> ar.key("1+").from("1"))))))
+                .withAggregation(FACET_CONDITION, Aggregation.of(a -> a
+                        .terms(t -> t.field("condition").size(FACET_TERMS_SIZE))))
+                .withAggregation(FACET_SHIPPING_TYPE, Aggregation.of(a -> a
+                        .terms(t -> t.field("shippingOptions.type.keyword").size(FACET_TERMS_SIZE))))
+                .build();
+
+        SearchHits<Product> searchHits = elasticsearchOperations.search(searchQuery, Product.class);
+        List<ProductSummaryDTO> content = searchHits.getSearchHits().stream()
+                .map(hit -> productMapper.toSummaryDto(hit.getContent()))
+                .collect(Collectors.toList());
+
+        Map<String, List<FacetBucketDTO>> facets = new LinkedHashMap<>();
+        ElasticsearchAggregations aggregations = (ElasticsearchAggregations) searchHits.getAggregations();
+        if (aggregations != null) {
+            facets.put(FACET_CATEGORY, termBuckets(aggregations.get(FACET_CATEGORY).aggregation().getAggregate()));
+            facets.put(FACET_PRICE, aggregations.get(FACET_PRICE).aggregation().getAggregate().histogram()
+                    .buckets().array().stream()
+                    .map(b -> new FacetBucketDTO(BigDecimal.valueOf(b.key()).stripTrailingZeros().toPlainString(), b.docCount()))
+                    .collect(Collectors.toList()));
+            facets.put(FACET_RATING, aggregations.get(FACET_RATING).aggregation().getAggregate().range()
+                    .buckets().array().stream()
+                    .map(b -> new FacetBucketDTO(b.key(), b.docCount()))
+                    .collect(Collectors.toList()));
+            facets.put(FACET_CONDITION, termBuckets(aggregations.get(FACET_CONDITION).aggregation().getAggregate()));
+            facets.put(FACET_SHIPPING_TYPE, termBuckets(aggregations.get(FACET_SHIPPING_TYPE).aggregation().getAggregate()));
+        }
+        return new FacetedSearchResultDTO(content, searchHits.getTotalHits(), facets);
+    }
+
+    private List<FacetBucketDTO> termBuckets(Aggregate aggregate) {
+        return aggregate.sterms().buckets().array().stream()
+                .map(b -> new FacetBucketDTO(b.key().stringValue(), b.docCount()))
+                .collect(Collectors.toList());
+    }
+
+    private co.elastic.clients.elasticsearch._types.query_dsl.Query textQuery(String query) {
+        return MultiMatchQuery.of(m -> m
+                .fields("name^2", "description")
+                .query(query)
+                .type(co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType.BestFields)
+        )._toQuery();
+    }
+
+    private co.elastic.clients.elasticsearch._types.query_dsl.Query fuzzyQuery(String query) {
+        return FuzzyQuery.of(f -> f
                 .field("name")
-                .value(prefix)
+                .value(query)
+                .fuzziness("AUTO")
+        )._toQuery();
+    }
+
+    private co.elastic.clients.elasticsearch._types.query_dsl.Query categoryQuery(String categoryName) {
+        // Use a proper Elasticsearch query instead of the problematic repository method
+        return co.elastic.clients.elasticsearch._types.query_dsl.Query.of(q -> q
+                .term(t -> t
+                        .field("category.categoryName.keyword")
+                        .value(categoryName)
+                )
+        );
+    }
+
+    public List<String> getAutocompleteSuggestions(String prefix) {
+        log.debug("Getting autocomplete suggestions for: {}", prefix);
+
+        List<String> inMemory = productAutocompleteIndex.suggest(prefix, AUTOCOMPLETE_SIZE);
+        if (!inMemory.isEmpty()) {
+            return inMemory;
+        }
+
+        co.elastic.clients.elasticsearch._types.query_dsl.Query prefixMatch = MatchQuery.of(m -> m
+                .field("name.autocomplete")
+                .query(prefix)
+                .operator(Operator.And)
         )._toQuery();
 
+        co.elastic.clients.elasticsearch._types.query_dsl.Query suggestionQuery = autocompletePopularityWeighting
+                ? FunctionScoreQuery.of(f -> f
+                        .query(prefixMatch)
+                        // log10(2 + rating) is never 0, so unrated products keep their text score
+                        .functions(fn -> fn.fieldValueFactor(v -> v
+                                .field("rating")
+                                .modifier(FieldValueFactorModifier.Log2p)
+                                .missing(0.0)))
+                        .boostMode(FunctionBoostMode.Multiply)
+                )._toQuery()
+                : prefixMatch;
+
+        // Collapse on the keyword subfield so each name comes back once, and fetch only the name
         org.springframework.data.elasticsearch.core.query.Query searchQuery = NativeQuery.builder()
-                .withQuery(prefixQuery)
-                .withMaxResults(10)
+                .withQuery(suggestionQuery)
+                .withFieldCollapse(FieldCollapse.of(c -> c.field("name.keyword")))
+                .withSourceFilter(new FetchSourceFilter(new String[]{"name"}, null))
+                .withTrackTotalHits(false)
+                .withMaxResults(AUTOCOMPLETE_SIZE)
                 .build();
-        
+
         SearchHits<Product> searchHits = elasticsearchOperations.search(searchQuery, Product.class);
         return searchHits.getSearchHits().stream()
                 .map(hit -> hit.getContent().getName())
-                .distinct()
                 .collect(Collectors.toList());
     }
 
@@ -1,15 +1,28 @@
 package com.example.product.service;
 
+import com.example.product.dto.CursorPage;
 import com.example.product.dto.ProductDTO;
+import com.example.product.dto.ProductItemPriceDTO;
+import com.example.product.dto.ProductSortOrder;
+import com.example.product.dto.ProductSummaryDTO;
 import com.example.product.entity.Product;
+import com.example.product.entity.ProductIndexOutbox;
 import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.jpa.ProductIndexOutboxRepository;
+import com.example.product.repository.jpa.ProductItemRepository;
 import com.example.product.repository.jpa.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.web.server.ResponseStatusException;
@@ -20,6 +33,12 @@ import org.springframework.http.HttpStatus;
 public class ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductIndexOutboxRepository productIndexOutboxRepository;
+    private final ProductDetailCache productDetailCache;
+    private final ProductItemRepository productItemRepository;
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_PRICE_LOOKUP = 500;
 
     public List<ProductDTO> getAllProducts() {
         return productRepository.findAll().stream()
@@ -28,16 +47,19 @@ public class ProductService {
     }
 
     public ProductDTO getProductById(Long id) {
-        return productRepository.findByIdWithShippingOptions(id)
+        return productDetailCache.get(id, key -> productRepository.findByIdWithShippingOptions(key)
                 .map(productMapper::toDto)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found")));
     }
 
+    @Transactional
     public ProductDTO createProduct(ProductDTO dto) {
-        Product product = productMapper.toEntity(dto);
-        return productMapper.toDto(productRepository.save(product));
+        Product product = productRepository.save(productMapper.toEntity(dto));
+        enqueueIndexChange(product.getId(), ProductIndexOutbox.Operation.UPSERT);
+        return productMapper.toDto(product);
     }
 
+    @Transactional
     public ProductDTO updateProduct(Long id, ProductDTO dto) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
@@ -45,11 +67,22 @@ public class ProductService {
         product.setDescription(dto.getDescription());
         product.setProductImage(dto.getProductImage());
         // Set category if needed
-        return productMapper.toDto(productRepository.save(product));
+        product = productRepository.save(product);
+        enqueueIndexChange(id, ProductIndexOutbox.Operation.UPSERT);
+        productDetailCache.invalidate(id);
+        return productMapper.toDto(product);
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        enqueueIndexChange(id, ProductIndexOutbox.Operation.DELETE);
+        productDetailCache.invalidate(id);
+    }
+
+    // Committed with the product change itself; ProductIndexer applies it to Elasticsearch
+    private void enqueueIndexChange(Long productId, ProductIndexOutbox.Operation operation) {
+        productIndexOutboxRepository.save(ProductIndexOutbox.of(productId, operation));
     }
 
     public List<ProductDTO> searchProducts(String name, Long categoryId, BigDecimal minPrice, BigDecimal maxPrice) {
@@ -61,7 +94,142 @@ public class ProductService {
         ).stream().map(productMapper::toDto).collect(Collectors.toList());
     }
 
+    // Bulk price lookup for cart totals; ids that do not exist are simply absent from the result
+    public List<ProductItemPriceDTO> getItemPrices(List<Long> productItemIds) {
+        if (productItemIds == null || productItemIds.isEmpty()) {
+            return List.of();
+        }
+        if (productItemIds.size() > MAX_PRICE_LOOKUP) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + MAX_PRICE_LOOKUP + " product items per lookup");
+        }
+        return productItemRepository.findPricesByIdIn(productItemIds);
+    }
+
+    @Transactional(readOnly = true)
     public Page<ProductDTO> getAllProducts(Pageable pageable) {
-        return productRepository.findAll(pageable).map(productMapper::toDto);
+        Page<Product> page = productRepository.findAll(pageable);
+        prefetchListingAssociations(page.getContent());
+        return page.map(productMapper::toDto);
+    }
+
+    /**
+     * Initializes shippingOptions and variants for a page of managed products with one query
+     * each, so mapping the page does not lazy-load per product. Category and seller ids come
+     * from the foreign keys and never initialize their proxies.
+     */
+    private void prefetchListingAssociations(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        List<Long> ids = products.stream().map(Product::getId).collect(Collectors.toList());
+        productRepository.fetchShippingOptionsByIdIn(ids);
+        productRepository.fetchVariantsByIdIn(ids);
+    }
+
+    /**
+     * Seek-paginated listing: each page continues from the (sort key, id) of the previous
+     * page's last row, so page N costs the same as page 1. Products without a value for the
+     * sort key (price or createdAt) are not part of the listing.
+     */
+    public CursorPage<ProductSummaryDTO> searchProductsKeyset(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                                              ProductSortOrder sort, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String[] position = decodeCursor(cursor, sort);
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+
+        List<ProductSummaryDTO> rows;
+        if (position == null) {
+            rows = firstPage(categoryId, minPrice, maxPrice, sort, limit);
+        } else {
+            Long lastId = parseCursorId(position[2]);
+            rows = switch (sort) {
+                case PRICE_ASC -> categoryId == null
+                        ? productRepository.findSummariesByPriceAscAfter(minPrice, maxPrice,
+                                parseCursorPrice(position[1]), lastId, limit)
+                        : productRepository.findCategorySummariesByPriceAscAfter(categoryId, minPrice, maxPrice,
+                                parseCursorPrice(position[1]), lastId, limit);
+                case PRICE_DESC -> categoryId == null
+                        ? productRepository.findSummariesByPriceDescAfter(minPrice, maxPrice,
+                                parseCursorPrice(position[1]), lastId, limit)
+                        : productRepository.findCategorySummariesByPriceDescAfter(categoryId, minPrice, maxPrice,
+                                parseCursorPrice(position[1]), lastId, limit);
+                default -> categoryId == null
+                        ? productRepository.findSummariesNewestFirstAfter(minPrice, maxPrice,
+                                parseCursorCreatedAt(position[1]), lastId, limit)
+                        : productRepository.findCategorySummariesNewestFirstAfter(categoryId, minPrice, maxPrice,
+                                parseCursorCreatedAt(position[1]), lastId, limit);
+            };
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<ProductSummaryDTO> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(sort, content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    private List<ProductSummaryDTO> firstPage(Long categoryId, BigDecimal minPrice, BigDecimal maxPrice,
+                                              ProductSortOrder sort, Limit limit) {
+        return switch (sort) {
+            case PRICE_ASC -> categoryId == null
+                    ? productRepository.findSummariesByPriceAsc(minPrice, maxPrice, limit)
+                    : productRepository.findCategorySummariesByPriceAsc(categoryId, minPrice, maxPrice, limit);
+            case PRICE_DESC -> categoryId == null
+                    ? productRepository.findSummariesByPriceDesc(minPrice, maxPrice, limit)
+                    : productRepository.findCategorySummariesByPriceDesc(categoryId, minPrice, maxPrice, limit);
+            default -> categoryId == null
+                    ? productRepository.findSummariesNewestFirst(minPrice, maxPrice, limit)
+                    : productRepository.findCategorySummariesNewestFirst(categoryId, minPrice, maxPrice, limit);
+        };
+    }
+
+    private String encodeCursor(ProductSortOrder sort, ProductSummaryDTO last) {
+        String key = sort == ProductSortOrder.NEWEST
+                ? last.getCreatedAt().toString()
+                : last.getPrice().toPlainString();
+        String raw = sort.name() + "|" + key + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor, ProductSortOrder sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sort.name())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not match sort " + sort);
+        }
+        return parts;
+    }
+
+    private Long parseCursorId(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private BigDecimal parseCursorPrice(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private LocalDateTime parseCursorCreatedAt(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
-} 
\ No newline at end of file
+}
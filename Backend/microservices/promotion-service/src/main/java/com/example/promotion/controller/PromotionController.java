@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/promotions")
@@ -31,6 +32,11 @@ public class PromotionController {
         return ResponseEntity.ok(promotionService.assignPromotionToCategory(dto));
     }
 
+    @GetMapping("/categories")
+    public Map<Long, List<PromotionDTO>> getPromotionsByCategories(@RequestParam("ids") List<Long> categoryIds) {
+        return promotionService.getPromotionsByCategories(categoryIds);
+    }
+
     @GetMapping("/category/{categoryId}")
     public List<PromotionDTO> getPromotionsByCategory(@PathVariable Long categoryId) {
         return promotionService.getPromotionsByCategory(categoryId);
@@ -3,6 +3,14 @@ package com.example.promotion.repository;
 import com.example.promotion.entity.PromotionCategory;
 import com.example.promotion.entity.PromotionCategoryId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PromotionCategoryRepository extends JpaRepository<PromotionCategory, PromotionCategoryId> {
-} 
\ No newline at end of file
+
+    @Query("SELECT pc FROM PromotionCategory pc JOIN FETCH pc.promotion WHERE pc.id.categoryId IN :categoryIds")
+    List<PromotionCategory> findWithPromotionByCategoryIdIn(@Param("categoryIds") Collection<Long> categoryIds);
+}
@@ -13,7 +13,11 @@ import com.example.promotion.client.ProductCategoryClient;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -50,9 +54,19 @@ public class PromotionService {
     }
 
     public List<PromotionDTO> getPromotionsByCategory(Long categoryId) {
-        return promotionCategoryRepository.findAll().stream()
-                .filter(pc -> pc.getCategory() != null && pc.getCategory().getId().equals(categoryId))
-                .map(pc -> promotionMapper.toDto(pc.getPromotion()))
-                .collect(Collectors.toList());
+        return getPromotionsByCategories(List.of(categoryId)).get(categoryId);
+    }
+
+    // Every requested category is a key, with an empty list when it has no promotions
+    public Map<Long, List<PromotionDTO>> getPromotionsByCategories(Collection<Long> categoryIds) {
+        Map<Long, List<PromotionDTO>> byCategory = new LinkedHashMap<>();
+        categoryIds.forEach(id -> byCategory.put(id, new ArrayList<>()));
+        if (byCategory.isEmpty()) {
+            return byCategory;
+        }
+        for (PromotionCategory pc : promotionCategoryRepository.findWithPromotionByCategoryIdIn(byCategory.keySet())) {
+            byCategory.get(pc.getId().getCategoryId()).add(promotionMapper.toDto(pc.getPromotion()));
+        }
+        return byCategory;
     }
 } 
\ No newline at end of file
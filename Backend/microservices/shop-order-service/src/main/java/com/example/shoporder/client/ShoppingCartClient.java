@@ -3,6 +3,7 @@ package com.example.shoporder.client;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import java.util.List;
 
 @FeignClient(name = "shopping-cart-service", url = "${shoppingcart.service.url}")
@@ -12,4 +13,8 @@ public interface ShoppingCartClient {
 
     @GetMapping("/api/cart/{cartId}/items")
     List<Object> getItemsByCart(@PathVariable("cartId") Long cartId);
+
+    // Writes the cart's deferred quantity changes; 404 for an unknown cart
+    @PostMapping("/api/cart/{cartId}/flush")
+    void flushPendingWrites(@PathVariable("cartId") Long cartId);
 } 
\ No newline at end of file
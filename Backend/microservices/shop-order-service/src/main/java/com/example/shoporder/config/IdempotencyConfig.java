@@ -0,0 +1,29 @@
+package com.example.shoporder.config;
+
+import com.example.common.idempotency.IdempotencyService;
+import com.example.common.idempotency.IdempotencyStore;
+import com.example.common.idempotency.InMemoryIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "idempotency.store", havingValue = "memory", matchIfMissing = true)
+    public IdempotencyStore idempotencyStore() {
+        return new InMemoryIdempotencyStore();
+    }
+
+    @Bean
+    public IdempotencyService idempotencyService(IdempotencyStore store, ObjectMapper objectMapper,
+                                                 @Value("${idempotency.ttl:24h}") Duration ttl,
+                                                 @Value("${idempotency.lease:60s}") Duration lease) {
+        return new IdempotencyService(store, objectMapper, ttl, lease);
+    }
+}
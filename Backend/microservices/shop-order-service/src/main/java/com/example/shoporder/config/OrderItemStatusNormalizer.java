@@ -0,0 +1,51 @@
+package com.example.shoporder.config;
+
+import com.example.shoporder.entity.OrderItemStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites item statuses stored before the status endpoint checked them: legacy free-text values
+ * become the status they stood for, and other spellings of a status become its lowercase value.
+ * Native aggregates such as the seller dashboard rebuild group by the stored string, so they only
+ * agree with the entity view once the column holds canonical values. Rows already canonical are
+ * not touched, so running this on every start, and next to other replicas, is safe.
+ */
+@Component
+public class OrderItemStatusNormalizer {
+    private static final Logger logger = LoggerFactory.getLogger(OrderItemStatusNormalizer.class);
+
+    private static final String MAP_LEGACY_SQL =
+            "UPDATE order_line SET item_status = ? WHERE LOWER(TRIM(item_status)) = ?";
+    private static final String LOWERCASE_SQL =
+            "UPDATE order_line SET item_status = LOWER(TRIM(item_status)) " +
+            "WHERE item_status <> LOWER(TRIM(item_status)) AND LOWER(TRIM(item_status)) IN (" +
+            Arrays.stream(OrderItemStatus.values()).map(status -> "'" + status.value() + "'")
+                    .collect(Collectors.joining(", ")) + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taking the EntityManagerFactory makes this run after Hibernate has created order_line
+    public OrderItemStatusNormalizer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void normalize() {
+        int updated = jdbcTemplate.update(LOWERCASE_SQL);
+        for (Map.Entry<String, OrderItemStatus> legacy : OrderItemStatus.legacyValues().entrySet()) {
+            updated += jdbcTemplate.update(MAP_LEGACY_SQL, legacy.getValue().value(), legacy.getKey());
+        }
+        if (updated > 0) {
+            logger.info("Normalized {} legacy order line statuses", updated);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.shoporder.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves order_line_seq past the ids already in order_line, which the identity column assigned
+ * before order lines switched to sequence ids. The sequence only ever moves forward, so running
+ * this on every start, and next to other replicas, is safe.
+ */
+@Component
+public class OrderLineSequenceInitializer {
+    private static final String ALIGN_SQL =
+            "SELECT setval('order_line_seq', GREATEST((SELECT last_value FROM order_line_seq), " +
+            "(SELECT COALESCE(MAX(id), 0) FROM order_line)))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taking the EntityManagerFactory makes this run after Hibernate has created the sequence
+    public OrderLineSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequence() {
+        jdbcTemplate.queryForObject(ALIGN_SQL, Long.class);
+    }
+}
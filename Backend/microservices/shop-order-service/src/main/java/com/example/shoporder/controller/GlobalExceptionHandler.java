@@ -1,5 +1,6 @@
 package com.example.shoporder.controller;
 
+import com.example.shoporder.exception.InsufficientStockException;
 import lombok.Data;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +22,12 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse("Invalid request: " + ex.getMessage()));
     }
 
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStockException(InsufficientStockException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(ex.getMessage()));
+    }
+
     @Data
     public static class ErrorResponse {
         private final String error;
@@ -0,0 +1,50 @@
+package com.example.shoporder.controller;
+
+import com.example.shoporder.dto.ReserveStockRequest;
+import com.example.shoporder.dto.StockReservationDTO;
+import com.example.shoporder.service.InventoryReservationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/inventory/reservations")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class InventoryReservationController {
+    private final InventoryReservationService reservationService;
+
+    /**
+     * Reserve stock for all lines of a checkout at once; 409 lists the items that ran out
+     */
+    @PostMapping
+    public ResponseEntity<StockReservationDTO> reserve(@RequestBody ReserveStockRequest request) {
+        StockReservationDTO reservation = reservationService.reserve(request.getLines(), request.getTtlSeconds());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    @GetMapping("/{reservationId}")
+    public ResponseEntity<StockReservationDTO> getReservation(@PathVariable Long reservationId) {
+        try {
+            return ResponseEntity.ok(reservationService.getReservation(reservationId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Release a reservation that will not be ordered; 409 if it was already used or released,
+     * 404 if there is no such reservation
+     */
+    @DeleteMapping("/{reservationId}")
+    public ResponseEntity<Void> release(@PathVariable Long reservationId) {
+        try {
+            return reservationService.release(reservationId)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.shoporder.controller;
 
+import com.example.shoporder.dto.BulkItemStatusRequest;
+import com.example.shoporder.dto.CursorPage;
 import com.example.shoporder.dto.OrderLineDTO;
+import com.example.shoporder.dto.SellerDashboardDTO;
+import com.example.shoporder.dto.SellerOrderSummaryDTO;
 import com.example.shoporder.dto.ShopOrderDTO;
 import com.example.shoporder.service.SellerOrderService;
 import lombok.RequiredArgsConstructor;
@@ -42,6 +46,57 @@ public class SellerOrderController {
         }
     }
 
+    /**
+     * Get a seller's dashboard: line counts and revenue by item status
+     */
+    @GetMapping("/seller/{sellerId}/dashboard")
+    public ResponseEntity<SellerDashboardDTO> getDashboard(@PathVariable Long sellerId) {
+        try {
+            return ResponseEntity.ok(sellerOrderService.getDashboard(sellerId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get a newest-first page of the orders a seller has items in
+     */
+    @GetMapping("/seller/{sellerId}/recent")
+    public ResponseEntity<CursorPage<SellerOrderSummaryDTO>> getRecentOrders(
+            @PathVariable Long sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(sellerOrderService.getRecentOrders(sellerId, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Rebuild a seller's dashboard from their order lines
+     */
+    @PostMapping("/seller/{sellerId}/dashboard/rebuild")
+    public ResponseEntity<SellerDashboardDTO> rebuildDashboard(@PathVariable Long sellerId) {
+        try {
+            return ResponseEntity.ok(sellerOrderService.rebuildDashboard(sellerId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Rebuild every seller's dashboard; returns the number of sellers rebuilt
+     */
+    @PostMapping("/dashboard/rebuild")
+    public ResponseEntity<Integer> rebuildAllDashboards() {
+        try {
+            return ResponseEntity.ok(sellerOrderService.rebuildAllDashboards());
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Get order lines for a specific order by seller
      */
@@ -72,6 +127,19 @@ public class SellerOrderController {
         }
     }
 
+    /**
+     * Update the status of many order lines at once; each affected order is recomputed once
+     */
+    @PutMapping("/items/status")
+    public ResponseEntity<List<OrderLineDTO>> updateItemStatuses(@RequestBody BulkItemStatusRequest request) {
+        try {
+            List<OrderLineDTO> updatedOrderLines = sellerOrderService.updateItemStatuses(request.getUpdates());
+            return ResponseEntity.ok(updatedOrderLines);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Check and update order status based on item statuses
      */
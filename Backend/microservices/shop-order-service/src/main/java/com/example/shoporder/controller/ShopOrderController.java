@@ -1,8 +1,11 @@
 package com.example.shoporder.controller;
 
+import com.example.common.idempotency.IdempotencyService;
 import com.example.shoporder.dto.ShopOrderDTO;
 import com.example.shoporder.dto.OrderLineDTO;
 import com.example.shoporder.dto.CreateOrderRequest;
+import com.example.shoporder.dto.CursorPage;
+import com.example.shoporder.dto.OrderSummaryDTO;
 import com.example.shoporder.dto.OrderResponse;
 import com.example.shoporder.service.ShopOrderService;
 import lombok.RequiredArgsConstructor;
@@ -17,17 +20,21 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ShopOrderController {
     private final ShopOrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(@RequestBody CreateOrderRequest request) {
-        try {
-            OrderResponse response = orderService.createOrder(request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            OrderResponse errorResponse = new OrderResponse();
-            errorResponse.setMessage("Failed to create order: " + e.getMessage());
-            return ResponseEntity.badRequest().body(errorResponse);
-        }
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request,
+                                         @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "orders:" + request.getUserId(), request, () -> {
+            try {
+                OrderResponse response = orderService.createOrder(request);
+                return ResponseEntity.ok(response);
+            } catch (Exception e) {
+                OrderResponse errorResponse = new OrderResponse();
+                errorResponse.setMessage("Failed to create order: " + e.getMessage());
+                return ResponseEntity.badRequest().body(errorResponse);
+            }
+        });
     }
 
     @GetMapping("/{orderId}")
@@ -45,6 +52,14 @@ public class ShopOrderController {
         return orderService.getOrdersByUser(userId);
     }
 
+    @GetMapping("/user/{userId}/summaries")
+    public CursorPage<OrderSummaryDTO> getOrderSummaries(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return orderService.getOrderSummaries(userId, cursor, size);
+    }
+
     @GetMapping("/{orderId}/lines")
     public List<OrderLineDTO> getOrderLines(@PathVariable Long orderId) {
         return orderService.getOrderLines(orderId);
@@ -0,0 +1,15 @@
+package com.example.shoporder.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkItemStatusRequest {
+    private List<Update> updates;
+
+    @Data
+    public static class Update {
+        private Long orderLineId;
+        private String status;
+    }
+}
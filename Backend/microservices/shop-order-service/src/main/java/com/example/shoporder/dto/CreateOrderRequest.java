@@ -12,6 +12,10 @@ public class CreateOrderRequest {
     private Long shippingMethodId;
     private BigDecimal orderTotal;
     private List<OrderLineRequest> orderLines;
+    // Optional; stock reserved earlier via /api/inventory/reservations, otherwise taken at creation
+    private Long reservationId;
+    // Optional; the cart being checked out, whose pending quantity changes are written first
+    private Long cartId;
     
     @Data
     public static class OrderLineRequest {
@@ -0,0 +1,23 @@
+package com.example.shoporder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order history projection: the columns a "My Orders" row shows plus the number of lines,
+ * selected directly by JPQL so no entity or line is loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryDTO {
+    private Long id;
+    private LocalDateTime orderDate;
+    private BigDecimal orderTotal;
+    private String orderStatus;
+    private Long lineCount;
+}
@@ -0,0 +1,11 @@
+package com.example.shoporder.dto;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ReserveStockRequest {
+    private List<StockLineDTO> lines;
+    // Optional; defaults to inventory.reservation.ttl and is capped at inventory.reservation.max-ttl
+    private Long ttlSeconds;
+}
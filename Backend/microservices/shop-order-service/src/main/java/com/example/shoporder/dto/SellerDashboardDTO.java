@@ -0,0 +1,15 @@
+package com.example.shoporder.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+public class SellerDashboardDTO {
+    private Long sellerId;
+    private Map<String, Long> lineCountsByStatus;
+    private Map<String, BigDecimal> revenueByStatus;
+    private long totalLines;
+    // Revenue of all lines that are not cancelled
+    private BigDecimal revenue;
+}
@@ -0,0 +1,23 @@
+package com.example.shoporder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A row of a seller's recent orders: the order plus the seller's line count and revenue in it,
+ * selected directly by JPQL from the seller read model.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerOrderSummaryDTO {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private String orderStatus;
+    private Integer lineCount;
+    private BigDecimal revenue;
+}
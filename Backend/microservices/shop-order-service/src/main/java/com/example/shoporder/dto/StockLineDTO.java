@@ -0,0 +1,13 @@
+package com.example.shoporder.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLineDTO {
+    private Long productItemId;
+    private Integer qty;
+}
@@ -0,0 +1,14 @@
+package com.example.shoporder.dto;
+
+import lombok.Data;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+public class StockReservationDTO {
+    private Long id;
+    private String status;
+    private LocalDateTime expiresAt;
+    private Long orderId;
+    private List<StockLineDTO> lines;
+}
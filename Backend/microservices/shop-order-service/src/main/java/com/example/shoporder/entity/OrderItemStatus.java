@@ -0,0 +1,80 @@
+package com.example.shoporder.entity;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lifecycle of an order line. Stored lowercase (see {@link OrderItemStatusConverter}), which is
+ * what clients have always sent and read.
+ */
+public enum OrderItemStatus {
+    PENDING,
+    CONFIRMED,
+    SHIPPED,
+    DELIVERED,
+    RECEIVED,
+    CANCELLED;
+
+    private Set<OrderItemStatus> next;
+
+    // Free-text values the status endpoint accepted before statuses were checked, and what they meant
+    private static final Map<String, OrderItemStatus> LEGACY_VALUES = Map.of(
+            "processing", CONFIRMED,
+            "in progress", CONFIRMED,
+            "out for delivery", SHIPPED,
+            "completed", DELIVERED,
+            "failed", CANCELLED);
+
+    static {
+        PENDING.next = EnumSet.of(CONFIRMED, SHIPPED, CANCELLED);
+        CONFIRMED.next = EnumSet.of(SHIPPED, CANCELLED);
+        // A buyer may confirm receipt before the seller marks the line delivered
+        SHIPPED.next = EnumSet.of(DELIVERED, RECEIVED);
+        DELIVERED.next = EnumSet.of(RECEIVED);
+        RECEIVED.next = EnumSet.noneOf(OrderItemStatus.class);
+        CANCELLED.next = EnumSet.noneOf(OrderItemStatus.class);
+    }
+
+    public String value() {
+        return name().toLowerCase();
+    }
+
+    public boolean canMoveTo(OrderItemStatus target) {
+        return next.contains(target);
+    }
+
+    public void checkTransition(OrderItemStatus target) {
+        if (!canMoveTo(target)) {
+            throw new IllegalArgumentException("Cannot change item status from " + value() + " to " + target.value());
+        }
+    }
+
+    public static Map<String, OrderItemStatus> legacyValues() {
+        return LEGACY_VALUES;
+    }
+
+    /**
+     * Reads a stored value, including the legacy ones; null when it names no status at all
+     */
+    public static OrderItemStatus fromStoredValue(String value) {
+        String normalized = value.trim().toLowerCase();
+        for (OrderItemStatus status : values()) {
+            if (status.value().equals(normalized)) {
+                return status;
+            }
+        }
+        return LEGACY_VALUES.get(normalized);
+    }
+
+    public static OrderItemStatus fromValue(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Item status is required");
+        }
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown item status: " + value);
+        }
+    }
+}
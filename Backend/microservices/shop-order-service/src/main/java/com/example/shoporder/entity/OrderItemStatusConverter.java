@@ -0,0 +1,37 @@
+package com.example.shoporder.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Converter
+public class OrderItemStatusConverter implements AttributeConverter<OrderItemStatus, String> {
+    private static final Logger logger = LoggerFactory.getLogger(OrderItemStatusConverter.class);
+    private static final Set<String> warnedValues = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String convertToDatabaseColumn(OrderItemStatus status) {
+        return status == null ? null : status.value();
+    }
+
+    // Lines written before item statuses existed have none and count as pending. A value no status
+    // or legacy alias matches must not make its order unreadable, so it is read as pending too.
+    @Override
+    public OrderItemStatus convertToEntityAttribute(String value) {
+        if (value == null) {
+            return OrderItemStatus.PENDING;
+        }
+        OrderItemStatus status = OrderItemStatus.fromStoredValue(value);
+        if (status == null) {
+            if (warnedValues.add(value)) {
+                logger.warn("Unknown stored item status '{}', reading it as pending", value);
+            }
+            return OrderItemStatus.PENDING;
+        }
+        return status;
+    }
+}
@@ -7,11 +7,13 @@ import com.example.commonentities.ShopOrder;
 import com.example.commonentities.SiteUser;
 
 @Entity
-@Table(name = "order_line")
+@Table(name = "order_line", indexes = @Index(name = "idx_order_line_order_id", columnList = "order_id"))
 @Data
 public class OrderLine {
+    // Sequence ids are allocated in blocks before insert, so Hibernate can batch line inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_line_seq")
+    @SequenceGenerator(name = "order_line_seq", sequenceName = "order_line_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,5 +32,6 @@ public class OrderLine {
     private BigDecimal price;
     
     @Column(name = "item_status")
-    private String itemStatus = "pending"; // pending, confirmed, shipped, delivered, received, cancelled
+    @Convert(converter = OrderItemStatusConverter.class)
+    private OrderItemStatus itemStatus = OrderItemStatus.PENDING;
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.example.shoporder.entity;
+
+import java.util.Map;
+
+/**
+ * Order status derived from the statuses of its lines
+ */
+public enum OrderRollupStatus {
+    PENDING,
+    IN_PROGRESS,
+    RECEIVED,
+    CANCELLED;
+
+    public String value() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Any cancelled line cancels the order; all lines received completes it; any pending line
+     * keeps it pending; otherwise shipped or delivered lines put it in progress. Returns null
+     * when none applies (e.g. all lines confirmed), leaving the order status as it is.
+     */
+    public static OrderRollupStatus of(Map<OrderItemStatus, Long> counts) {
+        long total = counts.values().stream().mapToLong(Long::longValue).sum();
+        if (total == 0) {
+            return null;
+        }
+        if (counts.getOrDefault(OrderItemStatus.CANCELLED, 0L) > 0) {
+            return CANCELLED;
+        }
+        if (counts.getOrDefault(OrderItemStatus.RECEIVED, 0L) == total) {
+            return RECEIVED;
+        }
+        if (counts.getOrDefault(OrderItemStatus.PENDING, 0L) > 0) {
+            return PENDING;
+        }
+        if (counts.getOrDefault(OrderItemStatus.SHIPPED, 0L) + counts.getOrDefault(OrderItemStatus.DELIVERED, 0L) > 0) {
+            return IN_PROGRESS;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.shoporder.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationLine {
+    @Column(name = "product_item_id")
+    private Long productItemId;
+
+    private int qty;
+}
@@ -0,0 +1,7 @@
+package com.example.shoporder.entity;
+
+public enum ReservationStatus {
+    RESERVED,   // stock taken, waiting for an order or the expiry
+    CONFIRMED,  // converted into an order
+    RELEASED    // given back, explicitly or on expiry
+}
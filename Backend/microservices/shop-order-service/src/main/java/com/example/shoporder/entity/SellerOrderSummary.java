@@ -0,0 +1,44 @@
+package com.example.shoporder.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Seller dashboard read model: one row per order a seller has lines in, with the seller's share
+ * of it. The primary key doubles as the index for newest-first pages of a seller's orders.
+ */
+@Entity
+@Table(name = "seller_order_summary")
+@IdClass(SellerOrderSummary.Key.class)
+@Data
+public class SellerOrderSummary {
+    @Id
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Column(name = "line_count", nullable = false)
+    private int lineCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sellerId;
+        private Long orderId;
+    }
+}
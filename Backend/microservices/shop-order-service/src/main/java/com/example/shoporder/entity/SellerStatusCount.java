@@ -0,0 +1,40 @@
+package com.example.shoporder.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Seller dashboard read model: how many of a seller's order lines are in a status and what they
+ * are worth. Kept current by {@code SellerDashboardService} as lines are created and change status.
+ */
+@Entity
+@Table(name = "seller_status_count")
+@IdClass(SellerStatusCount.Key.class)
+@Data
+public class SellerStatusCount {
+    @Id
+    @Column(name = "seller_id")
+    private Long sellerId;
+
+    @Id
+    @Column(name = "item_status", length = 50)
+    private String itemStatus;
+
+    @Column(name = "line_count", nullable = false)
+    private long lineCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long sellerId;
+        private String itemStatus;
+    }
+}
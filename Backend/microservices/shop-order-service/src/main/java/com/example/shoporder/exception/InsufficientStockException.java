@@ -0,0 +1,16 @@
+package com.example.shoporder.exception;
+
+import java.util.List;
+
+public class InsufficientStockException extends RuntimeException {
+    private final List<Long> productItemIds;
+
+    public InsufficientStockException(List<Long> productItemIds) {
+        super("Insufficient stock for product items " + productItemIds);
+        this.productItemIds = productItemIds;
+    }
+
+    public List<Long> getProductItemIds() {
+        return productItemIds;
+    }
+}
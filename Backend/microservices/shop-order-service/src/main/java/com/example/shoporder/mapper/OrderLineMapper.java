@@ -1,6 +1,7 @@
 package com.example.shoporder.mapper;
 
 import com.example.shoporder.dto.OrderLineDTO;
+import com.example.shoporder.entity.OrderItemStatus;
 import com.example.shoporder.entity.OrderLine;
 import com.example.commonentities.ShopOrder;
 import com.example.commonentities.SiteUser;
@@ -13,13 +14,13 @@ public interface OrderLineMapper {
     @Mapping(source = "productItem.id", target = "productItemId")
     @Mapping(source = "order", target = "orderId", qualifiedByName = "orderToId")
     @Mapping(source = "seller", target = "sellerId", qualifiedByName = "sellerToId")
-    @Mapping(source = "itemStatus", target = "itemStatus")
+    @Mapping(source = "itemStatus", target = "itemStatus", qualifiedByName = "statusToValue")
     OrderLineDTO toDto(OrderLine orderLine);
 
     @Mapping(target = "productItem.id", source = "productItemId")
     @Mapping(target = "order", source = "orderId", qualifiedByName = "idToOrder")
     @Mapping(target = "seller", source = "sellerId", qualifiedByName = "idToSeller")
-    @Mapping(target = "itemStatus", source = "itemStatus")
+    @Mapping(target = "itemStatus", source = "itemStatus", qualifiedByName = "valueToStatus")
     OrderLine toEntity(OrderLineDTO dto);
 
     @Named("orderToId")
@@ -35,6 +36,16 @@ public interface OrderLineMapper {
         return order;
     }
 
+    @Named("statusToValue")
+    static String statusToValue(OrderItemStatus status) {
+        return status != null ? status.value() : null;
+    }
+
+    @Named("valueToStatus")
+    static OrderItemStatus valueToStatus(String value) {
+        return value != null ? OrderItemStatus.fromValue(value) : null;
+    }
+
     @Named("sellerToId")
     static Long sellerToId(SiteUser seller) {
         return seller != null ? seller.getId() : null;
@@ -29,4 +29,16 @@ public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
      */
     @Query("SELECT DISTINCT ol.order.id FROM OrderLine ol WHERE ol.seller.id = :sellerId")
     List<Long> findDistinctOrderIdsBySellerId(@Param("sellerId") Long sellerId);
+
+    /**
+     * Find every seller that has order lines
+     */
+    @Query("SELECT DISTINCT ol.seller.id FROM OrderLine ol WHERE ol.seller IS NOT NULL")
+    List<Long> findDistinctSellerIds();
+
+    /**
+     * Count an order's lines per item status in one aggregate query
+     */
+    @Query("SELECT ol.itemStatus, COUNT(ol) FROM OrderLine ol WHERE ol.order.id = :orderId GROUP BY ol.itemStatus")
+    List<Object[]> countByStatusForOrder(@Param("orderId") Long orderId);
 } 
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.shoporder.repository;
+
+import com.example.shoporder.entity.ProductItem;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductItemStockRepository extends JpaRepository<ProductItem, Long> {
+
+    /**
+     * Takes qty from stock only if that much is left; returns 0 when it is not. The check and
+     * the write are one statement, so concurrent checkouts cannot both take the last units.
+     * Items without a stock count (NULL) are not tracked and always succeed.
+     */
+    @Modifying
+    @Query(value = "UPDATE product_item SET qty_in_stock = qty_in_stock - :qty " +
+                   "WHERE id = :id AND (qty_in_stock IS NULL OR qty_in_stock >= :qty)", nativeQuery = true)
+    int tryDecrement(@Param("id") Long id, @Param("qty") int qty);
+
+    /**
+     * (product item id, seller id) pairs for the given items, read through their product in the
+     * shared catalog tables; items whose product has no seller are left out
+     */
+    @Query(value = "SELECT pi.id, p.seller_id FROM product_item pi JOIN product p ON p.id = pi.product_id " +
+                   "WHERE pi.id IN :ids AND p.seller_id IS NOT NULL", nativeQuery = true)
+    List<Object[]> findSellerIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ids among the given ones that name an existing product item
+     */
+    @Query("SELECT p.id FROM ProductItem p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Gives reserved units back to stock
+     */
+    @Modifying
+    @Query(value = "UPDATE product_item SET qty_in_stock = qty_in_stock + :qty WHERE id = :id", nativeQuery = true)
+    int increment(@Param("id") Long id, @Param("qty") int qty);
+}
@@ -0,0 +1,60 @@
+package com.example.shoporder.repository;
+
+import com.example.shoporder.dto.SellerOrderSummaryDTO;
+import com.example.shoporder.entity.SellerOrderSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface SellerOrderSummaryRepository extends JpaRepository<SellerOrderSummary, SellerOrderSummary.Key> {
+
+    /**
+     * Adds lines and revenue to a seller's share of an order, creating the row on first use
+     */
+    @Modifying
+    @Query(value = "INSERT INTO seller_order_summary (seller_id, order_id, order_date, line_count, revenue) " +
+                   "VALUES (:sellerId, :orderId, :orderDate, :lines, :revenue) " +
+                   "ON CONFLICT (seller_id, order_id) DO UPDATE SET " +
+                   "line_count = seller_order_summary.line_count + EXCLUDED.line_count, " +
+                   "revenue = seller_order_summary.revenue + EXCLUDED.revenue", nativeQuery = true)
+    int addToOrder(@Param("sellerId") Long sellerId, @Param("orderId") Long orderId,
+                   @Param("orderDate") LocalDateTime orderDate, @Param("lines") int lines,
+                   @Param("revenue") BigDecimal revenue);
+
+    String PAGE_SELECT = "SELECT new com.example.shoporder.dto.SellerOrderSummaryDTO(s.orderId, s.orderDate, " +
+           "o.orderStatus, s.lineCount, s.revenue) FROM SellerOrderSummary s JOIN ShopOrder o ON o.id = s.orderId ";
+
+    /**
+     * First newest-first page of a seller's orders; reads the primary key range of the seller
+     * plus one order row per result
+     */
+    @Query(PAGE_SELECT + "WHERE s.sellerId = :sellerId ORDER BY s.orderId DESC")
+    List<SellerOrderSummaryDTO> findPageBySellerId(@Param("sellerId") Long sellerId, Limit limit);
+
+    /**
+     * Next page below lastOrderId, as a plain range on the (seller_id, order_id) primary key
+     */
+    @Query(PAGE_SELECT + "WHERE s.sellerId = :sellerId AND s.orderId < :lastOrderId ORDER BY s.orderId DESC")
+    List<SellerOrderSummaryDTO> findPageBySellerIdBefore(@Param("sellerId") Long sellerId,
+                                                         @Param("lastOrderId") Long lastOrderId, Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM SellerOrderSummary s WHERE s.sellerId = :sellerId")
+    int deleteBySellerId(@Param("sellerId") Long sellerId);
+
+    /**
+     * Recomputes a seller's rows from order_line; for backfilling and repairing the read model
+     */
+    @Modifying
+    @Query(value = "INSERT INTO seller_order_summary (seller_id, order_id, order_date, line_count, revenue) " +
+                   "SELECT ol.seller_id, ol.order_id, MAX(o.order_date), COUNT(*), COALESCE(SUM(ol.price * ol.qty), 0) " +
+                   "FROM order_line ol JOIN shop_order o ON o.id = ol.order_id WHERE ol.seller_id = :sellerId " +
+                   "GROUP BY ol.seller_id, ol.order_id", nativeQuery = true)
+    int rebuildForSeller(@Param("sellerId") Long sellerId);
+}
@@ -0,0 +1,42 @@
+package com.example.shoporder.repository;
+
+import com.example.shoporder.entity.SellerStatusCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface SellerStatusCountRepository extends JpaRepository<SellerStatusCount, SellerStatusCount.Key> {
+
+    List<SellerStatusCount> findBySellerId(Long sellerId);
+
+    /**
+     * Adds (or with negative values, subtracts) lines and revenue to a seller's status in one
+     * atomic statement, creating the row on first use
+     */
+    @Modifying
+    @Query(value = "INSERT INTO seller_status_count (seller_id, item_status, line_count, revenue) " +
+                   "VALUES (:sellerId, :status, :lines, :revenue) " +
+                   "ON CONFLICT (seller_id, item_status) DO UPDATE SET " +
+                   "line_count = seller_status_count.line_count + EXCLUDED.line_count, " +
+                   "revenue = seller_status_count.revenue + EXCLUDED.revenue", nativeQuery = true)
+    int addToStatus(@Param("sellerId") Long sellerId, @Param("status") String status,
+                    @Param("lines") long lines, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query("DELETE FROM SellerStatusCount c WHERE c.sellerId = :sellerId")
+    int deleteBySellerId(@Param("sellerId") Long sellerId);
+
+    /**
+     * Recomputes a seller's rows from order_line; for backfilling and repairing the read model
+     */
+    @Modifying
+    @Query(value = "INSERT INTO seller_status_count (seller_id, item_status, line_count, revenue) " +
+                   "SELECT seller_id, LOWER(COALESCE(item_status, 'pending')), COUNT(*), COALESCE(SUM(price * qty), 0) " +
+                   "FROM order_line WHERE seller_id = :sellerId " +
+                   "GROUP BY seller_id, LOWER(COALESCE(item_status, 'pending'))", nativeQuery = true)
+    int rebuildForSeller(@Param("sellerId") Long sellerId);
+}
@@ -1,7 +1,45 @@
 package com.example.shoporder.repository;
 
 import com.example.commonentities.ShopOrder;
+import com.example.shoporder.dto.OrderSummaryDTO;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface ShopOrderRepository extends JpaRepository<ShopOrder, Long> {
-} 
\ No newline at end of file
+
+    /**
+     * All orders of a user, newest first; served by the (user_id, id) index
+     */
+    List<ShopOrder> findByUserIdOrderByIdDesc(Long userId);
+
+    String SUMMARY_SELECT = "SELECT new com.example.shoporder.dto.OrderSummaryDTO(o.id, o.orderDate, o.orderTotal, " +
+           "o.orderStatus, (SELECT COUNT(l) FROM OrderLine l WHERE l.order.id = o.id)) FROM ShopOrder o ";
+
+    /**
+     * First newest-first page of a user's orders; line counts come from the order_id index on
+     * order_line
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.userId = :userId ORDER BY o.id DESC")
+    List<OrderSummaryDTO> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Next page below lastId; a separate query so the seek is a plain range on the
+     * (user_id, id) index instead of an ":lastId IS NULL OR" filter
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.userId = :userId AND o.id < :lastId ORDER BY o.id DESC")
+    List<OrderSummaryDTO> findSummariesByUserIdBefore(@Param("userId") Long userId, @Param("lastId") Long lastId,
+                                                      Limit limit);
+
+    /**
+     * Sets the status only when it differs, so an unchanged roll-up writes nothing
+     */
+    @Modifying
+    @Query("UPDATE ShopOrder o SET o.orderStatus = :status WHERE o.id = :orderId " +
+           "AND (o.orderStatus IS NULL OR o.orderStatus <> :status)")
+    int updateStatusIfChanged(@Param("orderId") Long orderId, @Param("status") String status);
+}
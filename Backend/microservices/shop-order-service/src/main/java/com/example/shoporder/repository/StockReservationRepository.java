@@ -0,0 +1,35 @@
+package com.example.shoporder.repository;
+
+import com.example.shoporder.entity.ReservationStatus;
+import com.example.shoporder.entity.StockReservation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    /**
+     * Moves a reservation between states only if it is still in the expected one, so confirm,
+     * release and expiry never both act on the same reservation
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to, r.orderId = :orderId WHERE r.id = :id AND r.status = :from")
+    int transitionWithOrder(@Param("id") Long id, @Param("from") ReservationStatus from,
+                            @Param("to") ReservationStatus to, @Param("orderId") Long orderId);
+
+    /**
+     * Oldest expired reservations still holding stock; served by the (status, expires_at) index
+     */
+    @Query("SELECT r.id FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<Long> findIdsByStatusExpiredBefore(@Param("status") ReservationStatus status,
+                                            @Param("now") LocalDateTime now, Limit limit);
+}
@@ -0,0 +1,164 @@
+package com.example.shoporder.service;
+
+import com.example.shoporder.dto.StockLineDTO;
+import com.example.shoporder.dto.StockReservationDTO;
+import com.example.shoporder.entity.ReservationLine;
+import com.example.shoporder.entity.ReservationStatus;
+import com.example.shoporder.entity.StockReservation;
+import com.example.shoporder.exception.InsufficientStockException;
+import com.example.shoporder.repository.ProductItemStockRepository;
+import com.example.shoporder.repository.StockReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Takes stock at checkout with one conditional UPDATE per product item, so stock can never go
+ * negative. Items are always updated in id order, which keeps concurrent multi-line checkouts
+ * from deadlocking, and no row is read before it is written, so a hot item's row lock is held
+ * only from its UPDATE to the commit.
+ *
+ * A reservation holds stock for a checkout that has not been placed yet. It is confirmed by the
+ * order that uses it, released explicitly, or released by {@link StockReservationExpiryJob}
+ * once its TTL has passed.
+ */
+@Service
+@RequiredArgsConstructor
+public class InventoryReservationService {
+    private final StockReservationRepository reservationRepository;
+    private final ProductItemStockRepository stockRepository;
+
+    @Value("${inventory.reservation.ttl:15m}")
+    private Duration defaultTtl;
+
+    @Value("${inventory.reservation.max-ttl:1h}")
+    private Duration maxTtl;
+
+    /**
+     * Reserves every line or none: a line without enough stock rolls the whole reservation back
+     */
+    @Transactional
+    public StockReservationDTO reserve(List<StockLineDTO> lines, Long ttlSeconds) {
+        SortedMap<Long, Integer> quantities = quantitiesOf(lines);
+        Duration ttl = ttlSeconds == null ? defaultTtl : Duration.ofSeconds(ttlSeconds);
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+            throw new IllegalArgumentException("ttlSeconds must be between 1 and " + maxTtl.toSeconds());
+        }
+
+        StockReservation reservation = new StockReservation();
+        reservation.setStatus(ReservationStatus.RESERVED);
+        reservation.setCreatedAt(LocalDateTime.now());
+        reservation.setExpiresAt(reservation.getCreatedAt().plus(ttl));
+        quantities.forEach((id, qty) -> reservation.getLines().add(new ReservationLine(id, qty)));
+        StockReservation saved = reservationRepository.save(reservation);
+
+        // Stock is taken last, so row locks on hot items are held only until the commit
+        takeStock(quantities);
+        return toDto(saved);
+    }
+
+    public StockReservationDTO getReservation(Long reservationId) {
+        return toDto(findReservation(reservationId));
+    }
+
+    /**
+     * Hands a reservation over to an order; joins the order's transaction. The order must ask
+     * for exactly the reserved quantities.
+     */
+    @Transactional
+    public void confirm(Long reservationId, Long orderId, SortedMap<Long, Integer> orderQuantities) {
+        StockReservation reservation = findReservation(reservationId);
+        Map<Long, Integer> reserved = reservation.getLines().stream()
+                .collect(Collectors.toMap(ReservationLine::getProductItemId, ReservationLine::getQty));
+        if (!reserved.equals(orderQuantities)) {
+            throw new IllegalArgumentException("Order lines do not match reservation " + reservationId);
+        }
+        if (reservationRepository.transitionWithOrder(reservationId, ReservationStatus.RESERVED,
+                ReservationStatus.CONFIRMED, orderId) == 0) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " has expired or was already used");
+        }
+    }
+
+    /**
+     * Takes stock for an order placed without a reservation; joins the order's transaction
+     */
+    @Transactional
+    public void takeStock(SortedMap<Long, Integer> quantities) {
+        List<Long> missing = new ArrayList<>();
+        quantities.forEach((id, qty) -> {
+            if (stockRepository.tryDecrement(id, qty) == 0) {
+                missing.add(id);
+            }
+        });
+        if (missing.isEmpty()) {
+            return;
+        }
+        // A failed decrement is either too little stock or no such item; only the latter is the caller's mistake
+        List<Long> unknown = new ArrayList<>(missing);
+        unknown.removeAll(stockRepository.findExistingIds(missing));
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Product item not found with id(s): " + unknown);
+        }
+        throw new InsufficientStockException(missing);
+    }
+
+    /**
+     * Gives a reservation's stock back; returns false when it was already confirmed or released
+     */
+    @Transactional
+    public boolean release(Long reservationId) {
+        if (reservationRepository.transition(reservationId, ReservationStatus.RESERVED, ReservationStatus.RELEASED) == 0) {
+            // Throws for an unknown id, which is not a conflict
+            findReservation(reservationId);
+            return false;
+        }
+        findReservation(reservationId).getLines().stream()
+                .sorted((a, b) -> a.getProductItemId().compareTo(b.getProductItemId()))
+                .forEach(line -> stockRepository.increment(line.getProductItemId(), line.getQty()));
+        return true;
+    }
+
+    /**
+     * Sums quantities per product item, in id order
+     */
+    public SortedMap<Long, Integer> quantitiesOf(List<StockLineDTO> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("At least one line is required");
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (StockLineDTO line : lines) {
+            if (line.getProductItemId() == null || line.getQty() == null || line.getQty() < 1) {
+                throw new IllegalArgumentException("Each line needs a productItemId and a qty of at least 1");
+            }
+            quantities.merge(line.getProductItemId(), line.getQty(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private StockReservation findReservation(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found with id: " + reservationId));
+    }
+
+    private StockReservationDTO toDto(StockReservation reservation) {
+        StockReservationDTO dto = new StockReservationDTO();
+        dto.setId(reservation.getId());
+        dto.setStatus(reservation.getStatus().name());
+        dto.setExpiresAt(reservation.getExpiresAt());
+        dto.setOrderId(reservation.getOrderId());
+        dto.setLines(reservation.getLines().stream()
+                .map(line -> new StockLineDTO(line.getProductItemId(), line.getQty()))
+                .collect(Collectors.toList()));
+        return dto;
+    }
+}
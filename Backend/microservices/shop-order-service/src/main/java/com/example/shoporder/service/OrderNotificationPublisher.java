@@ -0,0 +1,90 @@
+package com.example.shoporder.service;
+
+import com.example.shoporder.client.EmailClient;
+import com.example.shoporder.client.SiteUserClient;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends order emails off the request thread. A notification is queued only once the order's
+ * transaction commits, so a rolled-back order never mails anyone, and the user lookup and email
+ * calls run on a small pool with a bounded queue; when the queue is full the email is dropped
+ * rather than slowing checkout down.
+ */
+@Component
+public class OrderNotificationPublisher {
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationPublisher.class);
+
+    private final SiteUserClient siteUserClient;
+    private final EmailClient emailClient;
+    private final ExecutorService executor;
+
+    public OrderNotificationPublisher(SiteUserClient siteUserClient, EmailClient emailClient,
+                                      @Value("${order.notifications.threads:2}") int threads,
+                                      @Value("${order.notifications.queue-capacity:1000}") int queueCapacity) {
+        this.siteUserClient = siteUserClient;
+        this.emailClient = emailClient;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "order-notifications-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /** Queues the email once the current transaction commits, or right away outside one. */
+    public void publish(Long userId, String orderInfo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(userId, orderInfo);
+                }
+            });
+        } else {
+            enqueue(userId, orderInfo);
+        }
+    }
+
+    private void enqueue(Long userId, String orderInfo) {
+        try {
+            executor.execute(() -> send(userId, orderInfo));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Order notification queue full, dropping email for user {}", userId);
+        }
+    }
+
+    private void send(Long userId, String orderInfo) {
+        try {
+            var user = siteUserClient.getUserById(userId);
+            EmailClient.EmailRequest email = new EmailClient.EmailRequest();
+            email.setTo(user.getEmailAddress());
+            email.setSubject("Order Notification");
+            email.setText("Order details: " + orderInfo);
+            emailClient.sendEmail(email);
+        } catch (Exception e) {
+            // The order is already committed; a lost email is only logged
+            logger.warn("Failed to send order email to user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    // Gives queued emails a moment to go out; anything left is dropped
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
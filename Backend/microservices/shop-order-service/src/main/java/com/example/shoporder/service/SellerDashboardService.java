@@ -0,0 +1,179 @@
+package com.example.shoporder.service;
+
+import com.example.commonentities.ShopOrder;
+import com.example.shoporder.dto.CursorPage;
+import com.example.shoporder.dto.SellerDashboardDTO;
+import com.example.shoporder.dto.SellerOrderSummaryDTO;
+import com.example.shoporder.entity.OrderItemStatus;
+import com.example.shoporder.entity.OrderLine;
+import com.example.shoporder.entity.SellerStatusCount;
+import com.example.shoporder.repository.OrderLineRepository;
+import com.example.shoporder.repository.SellerOrderSummaryRepository;
+import com.example.shoporder.repository.SellerStatusCountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the seller dashboard read model: per-seller line counts and revenue by item status,
+ * and per-seller order summaries. Both are adjusted by deltas inside the transaction that creates
+ * lines or changes their status, so a dashboard is a lookup of a few rows instead of a scan of
+ * the seller's order history. Deltas are applied in (seller, status) order so concurrent updates
+ * lock the rows in the same order.
+ */
+@Service
+@RequiredArgsConstructor
+public class SellerDashboardService {
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final SellerStatusCountRepository statusCountRepository;
+    private final SellerOrderSummaryRepository orderSummaryRepository;
+    private final OrderLineRepository orderLineRepository;
+
+    /**
+     * Counts newly created lines; lines without a seller are not part of any dashboard
+     */
+    @Transactional
+    public void linesCreated(ShopOrder order, List<OrderLine> lines) {
+        Map<Long, Map<String, Delta>> statusDeltas = new TreeMap<>();
+        Map<Long, Delta> orderDeltas = new TreeMap<>();
+        for (OrderLine line : lines) {
+            Long sellerId = sellerIdOf(line);
+            if (sellerId == null) {
+                continue;
+            }
+            BigDecimal amount = amountOf(line);
+            statusDeltas.computeIfAbsent(sellerId, id -> new TreeMap<>())
+                    .computeIfAbsent(line.getItemStatus().value(), status -> new Delta()).add(1, amount);
+            orderDeltas.computeIfAbsent(sellerId, id -> new Delta()).add(1, amount);
+        }
+        applyStatusDeltas(statusDeltas);
+        orderDeltas.forEach((sellerId, delta) -> orderSummaryRepository.addToOrder(sellerId, order.getId(),
+                order.getOrderDate(), (int) delta.lines, delta.revenue));
+    }
+
+    /**
+     * Moves one line from its old status to its current one
+     */
+    @Transactional
+    public void statusChanged(OrderLine line, OrderItemStatus oldStatus) {
+        Map<Long, Map<String, Delta>> deltas = new TreeMap<>();
+        collectStatusChange(deltas, line, oldStatus);
+        applyStatusDeltas(deltas);
+    }
+
+    /**
+     * Adds a line's status change to a set of deltas applied later in one go
+     */
+    public void collectStatusChange(Map<Long, Map<String, Delta>> deltas, OrderLine line, OrderItemStatus oldStatus) {
+        Long sellerId = sellerIdOf(line);
+        if (sellerId == null || oldStatus == line.getItemStatus()) {
+            return;
+        }
+        String from = oldStatus.value();
+        String to = line.getItemStatus().value();
+        BigDecimal amount = amountOf(line);
+        Map<String, Delta> sellerDeltas = deltas.computeIfAbsent(sellerId, id -> new TreeMap<>());
+        sellerDeltas.computeIfAbsent(from, status -> new Delta()).add(-1, amount.negate());
+        sellerDeltas.computeIfAbsent(to, status -> new Delta()).add(1, amount);
+    }
+
+    @Transactional
+    public void applyStatusDeltas(Map<Long, Map<String, Delta>> deltas) {
+        deltas.forEach((sellerId, byStatus) -> byStatus.forEach((status, delta) -> {
+            if (delta.lines != 0 || delta.revenue.signum() != 0) {
+                statusCountRepository.addToStatus(sellerId, status, delta.lines, delta.revenue);
+            }
+        }));
+    }
+
+    public SellerDashboardDTO getDashboard(Long sellerId) {
+        Map<String, Long> counts = new TreeMap<>();
+        Map<String, BigDecimal> revenues = new TreeMap<>();
+        long totalLines = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (SellerStatusCount row : statusCountRepository.findBySellerId(sellerId)) {
+            if (row.getLineCount() == 0) {
+                continue;
+            }
+            counts.put(row.getItemStatus(), row.getLineCount());
+            revenues.put(row.getItemStatus(), row.getRevenue());
+            totalLines += row.getLineCount();
+            if (!OrderItemStatus.CANCELLED.value().equals(row.getItemStatus())) {
+                revenue = revenue.add(row.getRevenue());
+            }
+        }
+        SellerDashboardDTO dto = new SellerDashboardDTO();
+        dto.setSellerId(sellerId);
+        dto.setLineCountsByStatus(counts);
+        dto.setRevenueByStatus(revenues);
+        dto.setTotalLines(totalLines);
+        dto.setRevenue(revenue);
+        return dto;
+    }
+
+    /**
+     * Newest-first page of the orders a seller has lines in; the cursor is the previous page's
+     * last order id
+     */
+    public CursorPage<SellerOrderSummaryDTO> getRecentOrders(Long sellerId, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long lastOrderId;
+        try {
+            lastOrderId = cursor == null || cursor.isBlank() ? null : Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<SellerOrderSummaryDTO> rows = lastOrderId == null
+                ? orderSummaryRepository.findPageBySellerId(sellerId, limit)
+                : orderSummaryRepository.findPageBySellerIdBefore(sellerId, lastOrderId, limit);
+        boolean hasNext = rows.size() > size;
+        List<SellerOrderSummaryDTO> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getOrderId()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    /**
+     * Recomputes a seller's read model from their order lines
+     */
+    @Transactional
+    public void rebuild(Long sellerId) {
+        statusCountRepository.deleteBySellerId(sellerId);
+        orderSummaryRepository.deleteBySellerId(sellerId);
+        statusCountRepository.rebuildForSeller(sellerId);
+        orderSummaryRepository.rebuildForSeller(sellerId);
+    }
+
+    public List<Long> findSellerIds() {
+        return orderLineRepository.findDistinctSellerIds();
+    }
+
+    private static Long sellerIdOf(OrderLine line) {
+        return line.getSeller() == null ? null : line.getSeller().getId();
+    }
+
+    private static BigDecimal amountOf(OrderLine line) {
+        return line.getPrice() == null ? BigDecimal.ZERO : line.getPrice().multiply(BigDecimal.valueOf(line.getQty()));
+    }
+
+    /** Lines and revenue to add to one read model row */
+    public static final class Delta {
+        private long lines;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private void add(long lines, BigDecimal revenue) {
+            this.lines += lines;
+            this.revenue = this.revenue.add(revenue);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.shoporder.service;
 
+import com.example.shoporder.dto.BulkItemStatusRequest;
+import com.example.shoporder.dto.CursorPage;
 import com.example.shoporder.dto.OrderLineDTO;
+import com.example.shoporder.dto.SellerDashboardDTO;
+import com.example.shoporder.dto.SellerOrderSummaryDTO;
 import com.example.shoporder.dto.ShopOrderDTO;
+import com.example.shoporder.entity.OrderItemStatus;
 import com.example.shoporder.entity.OrderLine;
-import com.example.commonentities.ShopOrder;
+import com.example.shoporder.entity.OrderRollupStatus;
 import com.example.shoporder.mapper.OrderLineMapper;
 import com.example.shoporder.mapper.ShopOrderMapper;
 import com.example.shoporder.repository.OrderLineRepository;
@@ -12,16 +17,26 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SellerOrderService {
+    private static final int MAX_BULK_UPDATES = 500;
+
     private final OrderLineRepository orderLineRepository;
     private final ShopOrderRepository orderRepository;
     private final OrderLineMapper orderLineMapper;
     private final ShopOrderMapper orderMapper;
+    private final SellerDashboardService sellerDashboardService;
 
     /**
      * Get all order lines for a specific seller
@@ -45,65 +60,131 @@ public class SellerOrderService {
     }
 
     /**
-     * Update item status for a specific order line
+     * Update item status for a specific order line. Setting the status a line already has
+     * writes nothing; any other change must be a valid transition.
      */
     @Transactional
     public OrderLineDTO updateItemStatus(Long orderLineId, String newStatus) {
+        OrderItemStatus target = OrderItemStatus.fromValue(newStatus);
         OrderLine orderLine = orderLineRepository.findById(orderLineId)
                 .orElseThrow(() -> new IllegalArgumentException("Order line not found"));
-        
-        orderLine.setItemStatus(newStatus);
-        OrderLine updatedOrderLine = orderLineRepository.save(orderLine);
-        
-        // Check if all items in the order are received
+
+        OrderItemStatus current = orderLine.getItemStatus();
+        if (current == target) {
+            return orderLineMapper.toDto(orderLine);
+        }
+        current.checkTransition(target);
+        orderLine.setItemStatus(target);
+        sellerDashboardService.statusChanged(orderLine, current);
+
+        // Roll the new line status up into the order status
         checkAndUpdateOrderStatus(orderLine.getOrder().getId());
-        
-        return orderLineMapper.toDto(updatedOrderLine);
+
+        return orderLineMapper.toDto(orderLine);
+    }
+
+    /**
+     * Update the status of many order lines at once. All changes are validated and applied in
+     * one transaction, lines are loaded with one query, and each affected order's status is
+     * recomputed once however many of its lines changed.
+     */
+    @Transactional
+    public List<OrderLineDTO> updateItemStatuses(List<BulkItemStatusRequest.Update> updates) {
+        if (updates == null || updates.isEmpty()) {
+            throw new IllegalArgumentException("At least one update is required");
+        }
+        if (updates.size() > MAX_BULK_UPDATES) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_UPDATES + " updates per request");
+        }
+        Map<Long, OrderItemStatus> targets = new LinkedHashMap<>();
+        for (BulkItemStatusRequest.Update update : updates) {
+            if (update.getOrderLineId() == null) {
+                throw new IllegalArgumentException("Each update needs an orderLineId");
+            }
+            if (targets.put(update.getOrderLineId(), OrderItemStatus.fromValue(update.getStatus())) != null) {
+                throw new IllegalArgumentException("Order line " + update.getOrderLineId() + " appears more than once");
+            }
+        }
+
+        Map<Long, OrderLine> lines = orderLineRepository.findAllById(targets.keySet()).stream()
+                .collect(Collectors.toMap(OrderLine::getId, line -> line));
+        if (lines.size() < targets.size()) {
+            List<Long> missing = targets.keySet().stream().filter(id -> !lines.containsKey(id)).collect(Collectors.toList());
+            throw new IllegalArgumentException("Order lines not found: " + missing);
+        }
+
+        Map<Long, Map<String, SellerDashboardService.Delta>> dashboardDeltas = new TreeMap<>();
+        Set<Long> affectedOrderIds = new TreeSet<>();
+        List<OrderLineDTO> result = new ArrayList<>(targets.size());
+        targets.forEach((lineId, target) -> {
+            OrderLine line = lines.get(lineId);
+            OrderItemStatus current = line.getItemStatus();
+            if (current != target) {
+                current.checkTransition(target);
+                line.setItemStatus(target);
+                sellerDashboardService.collectStatusChange(dashboardDeltas, line, current);
+                affectedOrderIds.add(line.getOrder().getId());
+            }
+            result.add(orderLineMapper.toDto(line));
+        });
+
+        sellerDashboardService.applyStatusDeltas(dashboardDeltas);
+        affectedOrderIds.forEach(this::checkAndUpdateOrderStatus);
+        return result;
     }
 
     /**
-     * Check if all items in an order are received and update order status accordingly
+     * Recompute an order's status from one count-per-status query over its lines; the order row
+     * is only written when the status actually changes
      */
     @Transactional
     public void checkAndUpdateOrderStatus(Long orderId) {
-        ShopOrder order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
-        
-        List<OrderLine> orderLines = orderLineRepository.findByOrderId(orderId);
-        
-        // Check if all items are received
-        boolean allReceived = orderLines.stream()
-                .allMatch(line -> "received".equalsIgnoreCase(line.getItemStatus()));
-        
-        // Check if any items are cancelled
-        boolean anyCancelled = orderLines.stream()
-                .anyMatch(line -> "cancelled".equalsIgnoreCase(line.getItemStatus()));
-        
-        // Update order status based on item statuses
-        if (anyCancelled) {
-            order.setOrderStatus("cancelled");
-        } else if (allReceived) {
-            order.setOrderStatus("received");
-        } else {
-            // Check if any items are still pending
-            boolean anyPending = orderLines.stream()
-                    .anyMatch(line -> "pending".equalsIgnoreCase(line.getItemStatus()));
-            
-            if (anyPending) {
-                order.setOrderStatus("pending");
-            } else {
-                // If no pending items, check if any are shipped/delivered
-                boolean anyShipped = orderLines.stream()
-                        .anyMatch(line -> "shipped".equalsIgnoreCase(line.getItemStatus()) || 
-                                        "delivered".equalsIgnoreCase(line.getItemStatus()));
-                
-                if (anyShipped) {
-                    order.setOrderStatus("in_progress");
-                }
+        Map<OrderItemStatus, Long> counts = new EnumMap<>(OrderItemStatus.class);
+        for (Object[] row : orderLineRepository.countByStatusForOrder(orderId)) {
+            counts.merge((OrderItemStatus) row[0], (Long) row[1], Long::sum);
+        }
+        if (counts.isEmpty()) {
+            if (!orderRepository.existsById(orderId)) {
+                throw new IllegalArgumentException("Order not found");
             }
+            return;
+        }
+
+        OrderRollupStatus status = OrderRollupStatus.of(counts);
+        if (status != null) {
+            orderRepository.updateStatusIfChanged(orderId, status.value());
         }
-        
-        orderRepository.save(order);
+    }
+
+    /**
+     * Get a seller's line counts and revenue by item status from the read model
+     */
+    public SellerDashboardDTO getDashboard(Long sellerId) {
+        return sellerDashboardService.getDashboard(sellerId);
+    }
+
+    /**
+     * Get a newest-first page of the orders a seller has items in
+     */
+    public CursorPage<SellerOrderSummaryDTO> getRecentOrders(Long sellerId, String cursor, int size) {
+        return sellerDashboardService.getRecentOrders(sellerId, cursor, size);
+    }
+
+    /**
+     * Rebuild a seller's dashboard read model from their order lines
+     */
+    public SellerDashboardDTO rebuildDashboard(Long sellerId) {
+        sellerDashboardService.rebuild(sellerId);
+        return sellerDashboardService.getDashboard(sellerId);
+    }
+
+    /**
+     * Rebuild the dashboard read model of every seller, one seller per transaction
+     */
+    public int rebuildAllDashboards() {
+        List<Long> sellerIds = sellerDashboardService.findSellerIds();
+        sellerIds.forEach(sellerDashboardService::rebuild);
+        return sellerIds.size();
     }
 
     /**
@@ -3,36 +3,50 @@ package com.example.shoporder.service;
 import com.example.shoporder.dto.ShopOrderDTO;
 import com.example.shoporder.dto.OrderLineDTO;
 import com.example.shoporder.dto.CreateOrderRequest;
+import com.example.shoporder.dto.CursorPage;
+import com.example.shoporder.dto.OrderSummaryDTO;
+import com.example.shoporder.dto.StockLineDTO;
 import com.example.shoporder.dto.OrderResponse;
 import com.example.shoporder.entity.*;
 import com.example.shoporder.mapper.ShopOrderMapper;
 import com.example.shoporder.mapper.OrderLineMapper;
 import com.example.shoporder.repository.*;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
 import java.util.stream.Collectors;
-import com.example.shoporder.client.SiteUserClient;
-import com.example.shoporder.client.EmailClient;
 import com.example.shoporder.client.ShoppingCartClient;
 import com.example.shoporder.client.PromotionClient;
 import com.example.shoporder.client.OrderStatusClient;
 import com.example.shoporder.client.ShippingMethodClient;
 import com.example.shoporder.client.ProductClient;
 import com.example.commonentities.ShopOrder;
+import com.example.commonentities.SiteUser;
 
 @Service
 @RequiredArgsConstructor
 public class ShopOrderService {
+    private static final Logger logger = LoggerFactory.getLogger(ShopOrderService.class);
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final ShopOrderRepository orderRepository;
     private final OrderLineRepository orderLineRepository;
     private final ShopOrderMapper orderMapper;
     private final OrderLineMapper orderLineMapper;
-    private final SiteUserClient siteUserClient;
-    private final EmailClient emailClient;
+    private final OrderNotificationPublisher notificationPublisher;
+    private final InventoryReservationService inventoryReservationService;
+    private final SellerDashboardService sellerDashboardService;
+    private final ProductItemStockRepository stockRepository;
     private final ShoppingCartClient shoppingCartClient;
     private final PromotionClient promotionClient;
     private final OrderStatusClient orderStatusClient;
@@ -46,6 +60,10 @@ public class ShopOrderService {
             throw new IllegalArgumentException("User ID and order lines are required");
         }
 
+        if (request.getCartId() != null) {
+            flushCart(request.getCartId());
+        }
+
         // Create the order
         ShopOrder order = new ShopOrder();
         order.setUserId(request.getUserId());
@@ -59,8 +77,11 @@ public class ShopOrderService {
         // Save the order
         ShopOrder savedOrder = orderRepository.save(order);
 
-        // Create order lines
-        List<OrderLine> orderLines = request.getOrderLines().stream()
+        // Each line records its product's seller, which the seller dashboard counts it under
+        Map<Long, Long> sellerIds = sellerIdsOf(request.getOrderLines());
+
+        // Create order lines; saveAll lets Hibernate send them as one JDBC batch
+        List<OrderLine> orderLines = orderLineRepository.saveAll(request.getOrderLines().stream()
                 .map(lineRequest -> {
                     OrderLine orderLine = new OrderLine();
                     orderLine.setOrder(savedOrder);
@@ -70,13 +91,32 @@ public class ShopOrderService {
                     productItem.setId(lineRequest.getProductItemId());
                     productItem.setPrice(lineRequest.getPrice());
                     orderLine.setProductItem(productItem);
+
+                    Long sellerId = sellerIds.get(lineRequest.getProductItemId());
+                    if (sellerId != null) {
+                        SiteUser seller = new SiteUser();
+                        seller.setId(sellerId);
+                        orderLine.setSeller(seller);
+                    }
                     
                     orderLine.setQty(lineRequest.getQty());
                     orderLine.setPrice(lineRequest.getPrice());
                     
-                    return orderLineRepository.save(orderLine);
+                    return orderLine;
                 })
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+
+        sellerDashboardService.linesCreated(savedOrder, orderLines);
+
+        // Stock is taken last, so row locks on hot items are held only until the commit
+        SortedMap<Long, Integer> quantities = inventoryReservationService.quantitiesOf(request.getOrderLines().stream()
+                .map(line -> new StockLineDTO(line.getProductItemId(), line.getQty()))
+                .collect(Collectors.toList()));
+        if (request.getReservationId() != null) {
+            inventoryReservationService.confirm(request.getReservationId(), savedOrder.getId(), quantities);
+        } else {
+            inventoryReservationService.takeStock(quantities);
+        }
 
         // Convert to DTOs for response
         List<OrderLineDTO> orderLineDTOs = orderLines.stream()
@@ -96,25 +136,81 @@ public class ShopOrderService {
         response.setOrderLines(orderLineDTOs);
         response.setMessage("Order created successfully");
 
-        // Send email notification
+        // Send email notification once the order is committed, off the request thread
+        notifyUserOfOrder(request.getUserId(), "Order #" + savedOrder.getId() + " has been created successfully");
+
+        return response;
+    }
+
+    /**
+     * Has the cart service write the cart's deferred quantity changes before the order is placed.
+     * An unreachable cart service does not block checkout: its pending changes are kept and
+     * flushed on its own interval.
+     */
+    private void flushCart(Long cartId) {
         try {
-            notifyUserOfOrder(request.getUserId(), "Order #" + savedOrder.getId() + " has been created successfully");
-        } catch (Exception e) {
-            // Log error but don't fail the order creation
-            System.err.println("Failed to send email notification: " + e.getMessage());
+            shoppingCartClient.flushPendingWrites(cartId);
+        } catch (FeignException.NotFound e) {
+            throw new IllegalArgumentException("Cart not found with id: " + cartId);
+        } catch (FeignException e) {
+            logger.warn("Could not flush pending writes of cart {} at checkout: {}", cartId, e.getMessage());
         }
+    }
 
-        return response;
+    private Map<Long, Long> sellerIdsOf(List<CreateOrderRequest.OrderLineRequest> lines) {
+        List<Long> productItemIds = lines.stream()
+                .map(CreateOrderRequest.OrderLineRequest::getProductItemId)
+                .filter(id -> id != null)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Long> sellerIds = new HashMap<>();
+        if (productItemIds.isEmpty()) {
+            return sellerIds;
+        }
+        for (Object[] row : stockRepository.findSellerIds(productItemIds)) {
+            sellerIds.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return sellerIds;
     }
 
-    // Implement only basic CRUD for demonstration
     public List<ShopOrderDTO> getOrdersByUser(Long userId) {
-        return orderRepository.findAll().stream()
-                .filter(o -> o.getUserId() != null && o.getUserId().equals(userId))
+        return orderRepository.findByUserIdOrderByIdDesc(userId).stream()
                 .map(orderMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Newest-first order history page. The cursor is the id of the previous page's last order,
+     * so every page is an index range read regardless of how many orders the user or the
+     * platform has.
+     */
+    public CursorPage<OrderSummaryDTO> getOrderSummaries(Long userId, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long lastId = parseCursor(cursor);
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<OrderSummaryDTO> rows = lastId == null
+                ? orderRepository.findSummariesByUserId(userId, limit)
+                : orderRepository.findSummariesByUserIdBefore(userId, lastId, limit);
+        boolean hasNext = rows.size() > size;
+        List<OrderSummaryDTO> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? String.valueOf(content.get(content.size() - 1).getId()) : null;
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    private Long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     public ShopOrderDTO getOrderById(Long orderId) {
         ShopOrder order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found with id: " + orderId));
@@ -131,20 +227,13 @@ public class ShopOrderService {
     }
 
     public List<OrderLineDTO> getOrderLines(Long orderId) {
-        return orderLineRepository.findAll().stream()
-                .filter(l -> l.getOrder() != null && l.getOrder().getId().equals(orderId))
+        return orderLineRepository.findByOrderId(orderId).stream()
                 .map(orderLineMapper::toDto)
                 .collect(Collectors.toList());
     }
 
-    // Example usage of Feign clients
     public void notifyUserOfOrder(Long userId, String orderInfo) {
-        var user = siteUserClient.getUserById(userId);
-        EmailClient.EmailRequest email = new EmailClient.EmailRequest();
-        email.setTo(user.getEmailAddress());
-        email.setSubject("Order Notification");
-        email.setText("Order details: " + orderInfo);
-        emailClient.sendEmail(email);
+        notificationPublisher.publish(userId, orderInfo);
     }
 
     // Example usage of ShoppingCartClient
@@ -0,0 +1,61 @@
+package com.example.shoporder.service;
+
+import com.example.shoporder.entity.ReservationStatus;
+import com.example.shoporder.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Gives stock held by abandoned checkouts back. Each expired reservation is released in its own
+ * short transaction, and the status check in the release makes it safe against an order
+ * confirming the same reservation at that moment, on this or another replica.
+ */
+@Component
+public class StockReservationExpiryJob {
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationExpiryJob.class);
+
+    private final StockReservationRepository reservationRepository;
+    private final InventoryReservationService reservationService;
+
+    @Value("${inventory.reservation.expiry-batch-size:200}")
+    private int batchSize;
+
+    public StockReservationExpiryJob(StockReservationRepository reservationRepository,
+                                     InventoryReservationService reservationService) {
+        this.reservationRepository = reservationRepository;
+        this.reservationService = reservationService;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.reservation.expiry-interval-ms:30000}")
+    public void releaseExpired() {
+        int released = 0;
+        List<Long> ids;
+        boolean progressed;
+        do {
+            ids = reservationRepository.findIdsByStatusExpiredBefore(ReservationStatus.RESERVED,
+                    LocalDateTime.now(), Limit.of(batchSize));
+            progressed = false;
+            for (Long id : ids) {
+                try {
+                    if (reservationService.release(id)) {
+                        released++;
+                    }
+                    progressed = true;
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to release expired stock reservation {}", id, e);
+                }
+            }
+            // A batch that failed entirely is retried on the next run rather than in a loop
+        } while (ids.size() == batchSize && progressed);
+        if (released > 0) {
+            logger.info("Released {} expired stock reservations", released);
+        }
+    }
+}
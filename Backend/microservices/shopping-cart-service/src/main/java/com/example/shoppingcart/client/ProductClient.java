@@ -0,0 +1,14 @@
+package com.example.shoppingcart.client;
+
+import com.example.shoppingcart.dto.ProductItemPriceDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
+
+@FeignClient(name = "product-service", url = "${product.service.url}")
+public interface ProductClient {
+    @PostMapping("/api/products/items/prices")
+    List<ProductItemPriceDTO> getItemPrices(@RequestBody List<Long> productItemIds);
+}
@@ -0,0 +1,15 @@
+package com.example.shoppingcart.client;
+
+import com.example.shoppingcart.dto.PromotionDTO;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+import java.util.Map;
+
+@FeignClient(name = "promotion-service", url = "${promotion.service.url}")
+public interface PromotionClient {
+    @GetMapping("/api/promotions/categories")
+    Map<Long, List<PromotionDTO>> getPromotionsByCategories(@RequestParam("ids") List<Long> categoryIds);
+}
@@ -0,0 +1,17 @@
+package com.example.shoppingcart.config;
+
+import com.example.shoppingcart.service.CartEventBus;
+import com.example.shoppingcart.service.InMemoryCartEventBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CartEventConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.events.bus", havingValue = "local", matchIfMissing = true)
+    public CartEventBus cartEventBus() {
+        return new InMemoryCartEventBus();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.shoppingcart.config;
+
+import com.example.shoppingcart.service.CartSessionStore;
+import com.example.shoppingcart.service.CartWriteJournal;
+import com.example.shoppingcart.service.FileCartWriteJournal;
+import com.example.shoppingcart.service.InMemoryCartSessionStore;
+import com.example.shoppingcart.service.NoOpCartWriteJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class CartWriteBehindConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "cart.write-behind.session-store", havingValue = "local", matchIfMissing = true)
+    public CartSessionStore cartSessionStore() {
+        return new InMemoryCartSessionStore();
+    }
+
+    // Without a journal directory, quantities acknowledged since the last flush are lost on a crash.
+    // The journal replays by line id, so it is refused on a database that is recreated on every
+    // start: there the ids it holds belong to other carts' lines after a restart.
+    @Bean
+    public CartWriteJournal cartWriteJournal(@Value("${cart.write-behind.journal-dir:}") String journalDir,
+                                             @Value("${cart.write-behind.journal-fsync:true}") boolean fsync,
+                                             @Value("${spring.datasource.url:}") String datasourceUrl) {
+        if (journalDir.isBlank()) {
+            return new NoOpCartWriteJournal();
+        }
+        if (datasourceUrl.contains(":mem:") || datasourceUrl.contains(":memory:")) {
+            throw new IllegalStateException("cart.write-behind.journal-dir needs a persistent datasource, not " + datasourceUrl);
+        }
+        return new FileCartWriteJournal(Path.of(journalDir), fsync);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.shoppingcart.controller;
+
+import com.example.shoppingcart.dto.CartCleanupStatsDTO;
+import com.example.shoppingcart.service.AbandonedCartCleanupJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cart/admin")
+@RequiredArgsConstructor
+public class CartAdminController {
+    private final AbandonedCartCleanupJob cleanupJob;
+
+    @PostMapping("/cleanup")
+    public ResponseEntity<CartCleanupStatsDTO> startCleanup() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(cleanupJob.startRun());
+    }
+
+    @GetMapping("/cleanup")
+    public CartCleanupStatsDTO getCleanupStats() {
+        return cleanupJob.getStats();
+    }
+}
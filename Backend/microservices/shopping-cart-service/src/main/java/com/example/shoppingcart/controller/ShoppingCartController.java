@@ -1,13 +1,19 @@
 package com.example.shoppingcart.controller;
 
+import com.example.common.idempotency.IdempotencyService;
+import com.example.shoppingcart.dto.CartBatchRequest;
+import com.example.shoppingcart.dto.CartTotalsDTO;
 import com.example.shoppingcart.dto.ShoppingCartDTO;
 import com.example.shoppingcart.dto.ShoppingCartItemDTO;
 import com.example.shoppingcart.dto.MergeCartRequest;
+import com.example.shoppingcart.service.CartTotalsService;
 import com.example.shoppingcart.service.ShoppingCartService;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,6 +25,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ShoppingCartController {
     private final ShoppingCartService cartService;
+    private final CartTotalsService cartTotalsService;
+    private final IdempotencyService idempotencyService;
     private static final Logger logger = LoggerFactory.getLogger(ShoppingCartController.class);
 
     @PostMapping
@@ -47,14 +55,41 @@ public class ShoppingCartController {
         return cartService.getCartById(cartId);
     }
 
+    @GetMapping(path = "/{cartId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToCart(@PathVariable Long cartId) {
+        return cartService.subscribeToCart(cartId);
+    }
+
+    @GetMapping("/{cartId}/totals")
+    public CartTotalsDTO getCartTotals(@PathVariable Long cartId) {
+        return cartTotalsService.computeTotals(cartId);
+    }
+
     @GetMapping("/{cartId}/items")
     public List<ShoppingCartItemDTO> getItemsByCart(@PathVariable Long cartId) {
         return cartService.getItemsByCartId(cartId);
     }
 
     @PostMapping("/{cartId}/items")
-    public ShoppingCartItemDTO addItemToCart(@PathVariable Long cartId, @RequestBody AddItemRequest request) {
-        return cartService.addItemToCart(cartId, request.getProductItemId(), request.getQty(), request.getSize());
+    public ResponseEntity<?> addItemToCart(@PathVariable Long cartId, @RequestBody AddItemRequest request,
+                                           @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "cart-items:" + cartId, request, () -> ResponseEntity.ok(
+                cartService.addItemToCart(cartId, request.getProductItemId(), request.getQty(), request.getSize())));
+    }
+
+    @PostMapping("/{cartId}/items/batch")
+    public ResponseEntity<?> applyItemOperations(@PathVariable Long cartId, @RequestBody CartBatchRequest request,
+                                                 @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "cart-batch:" + cartId, request,
+                () -> ResponseEntity.ok(cartService.applyItemOperations(cartId, request.getOperations())));
+    }
+
+    @PostMapping("/{cartId}/flush")
+    public ResponseEntity<Void> flushPendingWrites(@PathVariable Long cartId) {
+        if (!cartService.flushPendingWrites(cartId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/items/{itemId}")
@@ -70,9 +105,14 @@ public class ShoppingCartController {
     }
 
     @PostMapping("/merge")
-    public List<ShoppingCartDTO> mergeGuestCarts(@RequestBody MergeCartRequest request) {
-        logger.info("/api/cart/merge called with userEmail: {} and guestCarts: {}", request.getUserEmail(), request.getGuestCarts());
-        return cartService.mergeGuestCarts(request.getUserEmail(), request.getGuestCarts());
+    public ResponseEntity<?> mergeGuestCarts(@RequestBody MergeCartRequest request,
+                                             @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        logger.debug("/api/cart/merge called for userEmail: {}", request.getUserEmail());
+        return idempotencyService.execute(idempotencyKey, "cart-merge:" + request.getUserEmail(), request, () -> {
+            ShoppingCartDTO merged = cartService.mergeGuestCarts(request.getUserEmail(), request.getGuestCarts());
+            // Nothing to merge and no "My Cart" yet
+            return merged == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(merged);
+        });
     }
 
     @Data
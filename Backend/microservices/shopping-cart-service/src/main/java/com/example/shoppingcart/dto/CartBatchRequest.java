@@ -0,0 +1,30 @@
+package com.example.shoppingcart.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A list of cart line operations applied in order, in one transaction.
+ */
+@Data
+public class CartBatchRequest {
+    private List<Operation> operations;
+
+    public enum Type {
+        // Adds qty to the line, creating it if needed
+        ADD,
+        // Sets the line quantity to qty, creating it if needed
+        SET,
+        // Deletes the line
+        REMOVE
+    }
+
+    @Data
+    public static class Operation {
+        private Type type;
+        private Long productItemId;
+        private String size;
+        private int qty;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.shoppingcart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartCleanupStatsDTO {
+    private boolean running;
+    private LocalDateTime lastRunStartedAt;
+    private LocalDateTime lastRunFinishedAt;
+    private long lastRunCartsDeleted;
+    private long lastRunItemsDeleted;
+    private int lastRunChunks;
+    // Last cart id scanned; a run that stopped at max-chunks-per-run resumes above it
+    private long resumeAfterId;
+    private long totalCartsDeleted;
+    private long totalItemsDeleted;
+}
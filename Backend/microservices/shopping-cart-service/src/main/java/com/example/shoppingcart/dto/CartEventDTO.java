@@ -0,0 +1,51 @@
+package com.example.shoppingcart.dto;
+
+import lombok.Data;
+
+/**
+ * A change to a cart pushed to its subscribers. ITEM_UPSERTED carries the line as written,
+ * ITEM_REMOVED the id of the deleted line, CART_SNAPSHOT the whole cart after a multi-line
+ * change or on subscribe, and CART_DELETED nothing.
+ */
+@Data
+public class CartEventDTO {
+    public enum Type { CART_SNAPSHOT, ITEM_UPSERTED, ITEM_REMOVED, CART_DELETED }
+
+    private Long cartId;
+    private Type type;
+    private ShoppingCartItemDTO item;
+    private Long itemId;
+    private ShoppingCartDTO cart;
+    private long timestamp = System.currentTimeMillis();
+
+    public static CartEventDTO snapshot(ShoppingCartDTO cart) {
+        CartEventDTO event = new CartEventDTO();
+        event.setCartId(cart.getId());
+        event.setType(Type.CART_SNAPSHOT);
+        event.setCart(cart);
+        return event;
+    }
+
+    public static CartEventDTO itemUpserted(ShoppingCartItemDTO item) {
+        CartEventDTO event = new CartEventDTO();
+        event.setCartId(item.getCartId());
+        event.setType(Type.ITEM_UPSERTED);
+        event.setItem(item);
+        return event;
+    }
+
+    public static CartEventDTO itemRemoved(Long cartId, Long itemId) {
+        CartEventDTO event = new CartEventDTO();
+        event.setCartId(cartId);
+        event.setType(Type.ITEM_REMOVED);
+        event.setItemId(itemId);
+        return event;
+    }
+
+    public static CartEventDTO cartDeleted(Long cartId) {
+        CartEventDTO event = new CartEventDTO();
+        event.setCartId(cartId);
+        event.setType(Type.CART_DELETED);
+        return event;
+    }
+}
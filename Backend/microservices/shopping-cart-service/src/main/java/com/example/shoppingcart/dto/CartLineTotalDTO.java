@@ -0,0 +1,20 @@
+package com.example.shoppingcart.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class CartLineTotalDTO {
+    private Long itemId;
+    private Long productItemId;
+    private Long productId;
+    private String name;
+    private String size;
+    private int quantity;
+    private BigDecimal unitPrice;
+    private BigDecimal lineSubtotal;
+    private String promotionName;
+    private BigDecimal discount;
+    private BigDecimal lineTotal;
+}
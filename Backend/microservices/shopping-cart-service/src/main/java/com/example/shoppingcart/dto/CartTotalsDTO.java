@@ -0,0 +1,18 @@
+package com.example.shoppingcart.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class CartTotalsDTO {
+    private Long cartId;
+    private List<CartLineTotalDTO> lines;
+    private BigDecimal subtotal;
+    private BigDecimal discountTotal;
+    private BigDecimal shippingEstimate;
+    private BigDecimal total;
+    // Lines left out of the totals because product-service has no price for them
+    private List<Long> unpricedProductItemIds;
+}
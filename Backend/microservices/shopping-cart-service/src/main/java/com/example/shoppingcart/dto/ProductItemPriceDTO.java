@@ -0,0 +1,17 @@
+package com.example.shoppingcart.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductItemPriceDTO {
+    private Long productItemId;
+    private Long productId;
+    private Long categoryId;
+    private String name;
+    private BigDecimal price;
+    private BigDecimal originalPrice;
+    private Integer qtyInStock;
+    private BigDecimal cheapestShippingPrice;
+}
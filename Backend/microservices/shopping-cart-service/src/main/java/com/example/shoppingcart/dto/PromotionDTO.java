@@ -0,0 +1,17 @@
+package com.example.shoppingcart.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class PromotionDTO {
+    private Long id;
+    private String name;
+    private String description;
+    // Percentage off, e.g. 20 for 20%
+    private BigDecimal discountRate;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -1,8 +1,12 @@
 package com.example.shoppingcart.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class ShoppingCartItemDTO {
     private Long id;
     private Long cartId;
@@ -0,0 +1,62 @@
+package com.example.shoppingcart.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based deletion of idle carts, one keyset chunk per transaction so each run holds at most
+ * one chunk of cart row locks at a time.
+ */
+@Repository
+public class CartCleanupRepository {
+
+    // A cart is idle when neither the cart nor any of its lines changed since the cutoff
+    private static final String LOCK_IDLE_CHUNK =
+            "SELECT c.id FROM shopping_cart c " +
+            "WHERE c.id > ? AND COALESCE(c.updated_at, c.created_at) < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM shopping_cart_item i WHERE i.cart_id = c.id AND i.updated_at >= ?) " +
+            "ORDER BY c.id LIMIT ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public CartCleanupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    public static final class Chunk {
+        private final List<Long> cartIds;
+        private final int itemsDeleted;
+
+        public Chunk(List<Long> cartIds, int itemsDeleted) {
+            this.cartIds = cartIds;
+            this.itemsDeleted = itemsDeleted;
+        }
+
+        public List<Long> getCartIds() { return cartIds; }
+        public int getItemsDeleted() { return itemsDeleted; }
+    }
+
+    /** Locks and deletes up to {@code limit} idle carts with ids above {@code afterId}. */
+    @Transactional
+    public Chunk deleteIdleChunk(long afterId, LocalDateTime cutoff, int limit) {
+        Timestamp cutoffTs = Timestamp.valueOf(cutoff);
+        List<Long> cartIds = jdbcTemplate.queryForList(LOCK_IDLE_CHUNK, Long.class, afterId, cutoffTs, cutoffTs, limit);
+        if (cartIds.isEmpty()) {
+            return new Chunk(cartIds, 0);
+        }
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", cartIds);
+        int items = namedJdbcTemplate.update("DELETE FROM shopping_cart_item WHERE cart_id IN (:ids)", ids);
+        namedJdbcTemplate.update("DELETE FROM shopping_cart_invited_emails WHERE shopping_cart_id IN (:ids)", ids);
+        namedJdbcTemplate.update("DELETE FROM shopping_cart WHERE id IN (:ids)", ids);
+        return new Chunk(cartIds, items);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.shoppingcart.repository;
+
+import com.example.shoppingcart.dto.CartBatchRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies cart line operations with JDBC batches. Each operation is one keyed statement, so no
+ * line is read back before it is written; consecutive operations of the same type share a batch.
+ */
+@Repository
+public class ShoppingCartItemBatchRepository {
+
+    private static final String MERGE_LINE =
+            "MERGE INTO shopping_cart_item t " +
+            "USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS INT))) " +
+            "AS s(cart_id, product_item_id, size, quantity) " +
+            "ON t.cart_id = s.cart_id AND t.product_item_id = s.product_item_id AND t.size_key = COALESCE(s.size, '') " +
+            "WHEN MATCHED THEN UPDATE SET quantity = %s, updated_at = CURRENT_TIMESTAMP " +
+            "WHEN NOT MATCHED THEN INSERT (cart_id, product_item_id, size, quantity) " +
+            "VALUES (s.cart_id, s.product_item_id, s.size, s.quantity)";
+    private static final String ADD_SQL = String.format(MERGE_LINE, "t.quantity + s.quantity");
+    private static final String SET_SQL = String.format(MERGE_LINE, "s.quantity");
+    private static final String REMOVE_SQL =
+            "DELETE FROM shopping_cart_item WHERE cart_id = ? AND product_item_id = ? AND size_key = COALESCE(?, '')";
+    private static final String SET_QUANTITY_SQL = "UPDATE shopping_cart_item SET quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+    private static final String TOUCH_CART_SQL = "UPDATE shopping_cart SET updated_at = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ShoppingCartItemBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies the operations in order. Returns false, without writing anything, when the cart does not exist.
+     */
+    @Transactional
+    public boolean apply(Long cartId, List<CartBatchRequest.Operation> operations) {
+        if (jdbcTemplate.update(TOUCH_CART_SQL, Timestamp.valueOf(LocalDateTime.now()), cartId) == 0) {
+            return false;
+        }
+        int start = 0;
+        while (start < operations.size()) {
+            CartBatchRequest.Type type = operations.get(start).getType();
+            int end = start;
+            List<Object[]> args = new ArrayList<>();
+            while (end < operations.size() && operations.get(end).getType() == type) {
+                CartBatchRequest.Operation op = operations.get(end++);
+                args.add(type == CartBatchRequest.Type.REMOVE
+                        ? new Object[]{cartId, op.getProductItemId(), op.getSize()}
+                        : new Object[]{cartId, op.getProductItemId(), op.getSize(), op.getQty()});
+            }
+            jdbcTemplate.batchUpdate(sqlFor(type), args);
+            start = end;
+        }
+        return true;
+    }
+
+    /**
+     * Writes quantities by line id in one batch. Lines deleted in the meantime are skipped.
+     */
+    @Transactional
+    public void updateQuantities(Map<Long, Integer> quantitiesByItemId) {
+        List<Object[]> args = new ArrayList<>(quantitiesByItemId.size());
+        quantitiesByItemId.forEach((itemId, quantity) -> args.add(new Object[]{quantity, itemId}));
+        jdbcTemplate.batchUpdate(SET_QUANTITY_SQL, args);
+    }
+
+    private static String sqlFor(CartBatchRequest.Type type) {
+        switch (type) {
+            case ADD:
+                return ADD_SQL;
+            case SET:
+                return SET_SQL;
+            default:
+                return REMOVE_SQL;
+        }
+    }
+}
@@ -1,9 +1,39 @@
 package com.example.shoppingcart.repository;
 
+import com.example.shoppingcart.dto.ShoppingCartItemDTO;
 import com.example.shoppingcart.entity.ShoppingCartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ShoppingCartItemRepository extends JpaRepository<ShoppingCartItem, Long> {
     List<ShoppingCartItem> findByCartId(Long cartId);
-} 
\ No newline at end of file
+
+    @Query("SELECT i.cart.id FROM ShoppingCartItem i WHERE i.id = :id")
+    Optional<Long> findCartIdById(@Param("id") Long id);
+
+    // Reads the foreign key columns directly, so no cart or product item proxy is created
+    @Query("SELECT new com.example.shoppingcart.dto.ShoppingCartItemDTO(i.id, i.cart.id, i.productItem.id, i.size, i.quantity) " +
+           "FROM ShoppingCartItem i WHERE i.cart.id IN :cartIds ORDER BY i.id")
+    List<ShoppingCartItemDTO> findItemViewsByCartIdIn(@Param("cartIds") Collection<Long> cartIds);
+
+    // Insert-or-update of one cart line in a single statement, keyed by uq_shopping_cart_item_line.
+    // Returns the written row as (id, cart_id, product_item_id, size, quantity), or nothing when
+    // the cart or the product item does not exist.
+    @Transactional
+    @Query(value = "SELECT id, cart_id, product_item_id, size, quantity FROM FINAL TABLE (" +
+           "MERGE INTO shopping_cart_item t " +
+           "USING (SELECT c.id AS cart_id, p.id AS product_item_id, CAST(:size AS VARCHAR(255)) AS size, CAST(:quantity AS INT) AS quantity " +
+           "       FROM shopping_cart c JOIN product_item p ON p.id = :productItemId WHERE c.id = :cartId) s " +
+           "ON t.cart_id = s.cart_id AND t.product_item_id = s.product_item_id AND t.size_key = COALESCE(s.size, '') " +
+           "WHEN MATCHED THEN UPDATE SET quantity = s.quantity, updated_at = CURRENT_TIMESTAMP " +
+           "WHEN NOT MATCHED THEN INSERT (cart_id, product_item_id, size, quantity) " +
+           "VALUES (s.cart_id, s.product_item_id, s.size, s.quantity))",
+           nativeQuery = true)
+    List<Object[]> upsertItem(@Param("cartId") Long cartId, @Param("productItemId") Long productItemId,
+                              @Param("size") String size, @Param("quantity") int quantity);
+}
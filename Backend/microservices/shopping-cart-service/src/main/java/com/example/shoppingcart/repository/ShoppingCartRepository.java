@@ -2,6 +2,16 @@ package com.example.shoppingcart.repository;
 
 import com.example.shoppingcart.entity.ShoppingCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+import java.util.Optional;
 
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
-} 
\ No newline at end of file
+    List<ShoppingCart> findByCreatedByOrderById(String createdBy);
+
+    Optional<ShoppingCart> findFirstByCreatedByAndNameOrderById(String createdBy, String name);
+
+    @Query("SELECT c FROM ShoppingCart c JOIN c.invitedEmails e WHERE e = :email ORDER BY c.id")
+    List<ShoppingCart> findByInvitedEmail(@Param("email") String email);
+}
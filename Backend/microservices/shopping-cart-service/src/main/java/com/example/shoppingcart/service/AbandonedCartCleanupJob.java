@@ -0,0 +1,145 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.CartCleanupStatsDTO;
+import com.example.shoppingcart.dto.CartEventDTO;
+import com.example.shoppingcart.repository.CartCleanupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes carts that neither changed nor had a line changed for {@code cart.cleanup.idle-after}.
+ * Carts are visited in id order in chunks of {@code chunk-size}, each chunk in its own short
+ * transaction, with a pause between chunks and a cap on chunks per run so the delete load on
+ * the database stays flat. A run that hits the cap resumes above the last id on the next run.
+ */
+@Service
+public class AbandonedCartCleanupJob {
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartCleanupJob.class);
+
+    private final CartCleanupRepository cleanupRepository;
+    private final CartWriteBehindBuffer writeBehind;
+    private final CartEventBroadcaster cartEvents;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "cart-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final CartCleanupStatsDTO stats = new CartCleanupStatsDTO();
+
+    @Value("${cart.cleanup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.cleanup.idle-after:90d}")
+    private Duration idleAfter;
+
+    @Value("${cart.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cart.cleanup.pause-ms:200}")
+    private long pauseMillis;
+
+    @Value("${cart.cleanup.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    public AbandonedCartCleanupJob(CartCleanupRepository cleanupRepository, CartWriteBehindBuffer writeBehind,
+                                   CartEventBroadcaster cartEvents) {
+        this.cleanupRepository = cleanupRepository;
+        this.writeBehind = writeBehind;
+        this.cartEvents = cartEvents;
+    }
+
+    /** Hands the run to the job's own thread so the shared scheduler keeps firing the flush and heartbeat tasks. */
+    @Scheduled(cron = "${cart.cleanup.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            executor.execute(this::run);
+        }
+    }
+
+    /** Starts a run in the background unless one is in progress; returns the current stats. */
+    public CartCleanupStatsDTO startRun() {
+        executor.execute(this::run);
+        return getStats();
+    }
+
+    public void run() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(idleAfter);
+        long afterId;
+        synchronized (stats) {
+            stats.setRunning(true);
+            stats.setLastRunStartedAt(LocalDateTime.now());
+            stats.setLastRunFinishedAt(null);
+            stats.setLastRunCartsDeleted(0);
+            stats.setLastRunItemsDeleted(0);
+            stats.setLastRunChunks(0);
+            afterId = stats.getResumeAfterId();
+        }
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                CartCleanupRepository.Chunk deleted = cleanupRepository.deleteIdleChunk(afterId, cutoff, chunkSize);
+                if (deleted.getCartIds().isEmpty()) {
+                    afterId = 0;
+                    break;
+                }
+                afterId = deleted.getCartIds().get(deleted.getCartIds().size() - 1);
+                for (Long cartId : deleted.getCartIds()) {
+                    writeBehind.discard(cartId);
+                    cartEvents.publish(CartEventDTO.cartDeleted(cartId));
+                }
+                synchronized (stats) {
+                    stats.setLastRunChunks(stats.getLastRunChunks() + 1);
+                    stats.setLastRunCartsDeleted(stats.getLastRunCartsDeleted() + deleted.getCartIds().size());
+                    stats.setLastRunItemsDeleted(stats.getLastRunItemsDeleted() + deleted.getItemsDeleted());
+                    stats.setTotalCartsDeleted(stats.getTotalCartsDeleted() + deleted.getCartIds().size());
+                    stats.setTotalItemsDeleted(stats.getTotalItemsDeleted() + deleted.getItemsDeleted());
+                    stats.setResumeAfterId(afterId);
+                }
+                if (deleted.getCartIds().size() < chunkSize) {
+                    afterId = 0;
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Abandoned cart cleanup failed after cart id {}", afterId, e);
+        } finally {
+            synchronized (stats) {
+                stats.setResumeAfterId(afterId);
+                stats.setRunning(false);
+                stats.setLastRunFinishedAt(LocalDateTime.now());
+                logger.info("Abandoned cart cleanup deleted {} carts and {} items in {} chunks, resume after id {}",
+                        stats.getLastRunCartsDeleted(), stats.getLastRunItemsDeleted(), stats.getLastRunChunks(), afterId);
+            }
+            running.set(false);
+        }
+    }
+
+    public CartCleanupStatsDTO getStats() {
+        synchronized (stats) {
+            return new CartCleanupStatsDTO(stats.isRunning(), stats.getLastRunStartedAt(), stats.getLastRunFinishedAt(),
+                    stats.getLastRunCartsDeleted(), stats.getLastRunItemsDeleted(), stats.getLastRunChunks(),
+                    stats.getResumeAfterId(), stats.getTotalCartsDeleted(), stats.getTotalItemsDeleted());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
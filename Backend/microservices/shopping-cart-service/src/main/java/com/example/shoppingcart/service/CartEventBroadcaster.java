@@ -0,0 +1,206 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.CartEventDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes cart events to Server-Sent Events subscribers on this node. Idle subscribers are
+ * parked async requests and hold no thread. Events are written by a few single-threaded lanes,
+ * picked by cart id, so a slow client never blocks the request that changed the cart and each
+ * cart's events arrive in order. When a lane's queue is full, a cart event that cannot be queued
+ * closes that cart's streams, so its subscribers reconnect and start again from a fresh snapshot
+ * rather than silently missing the change. Heartbeats take one queue slot per lane and are
+ * simply skipped when it is full.
+ */
+@Component
+public class CartEventBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(CartEventBroadcaster.class);
+
+    private final CartEventBus bus;
+    private final Map<Long, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService[] lanes;
+    private final long timeoutMillis;
+
+    public CartEventBroadcaster(CartEventBus bus,
+                                @Value("${cart.events.lanes:4}") int laneCount,
+                                @Value("${cart.events.lane-queue-capacity:10000}") int queueCapacity,
+                                @Value("${cart.events.timeout-ms:1800000}") long timeoutMillis) {
+        this.bus = bus;
+        this.timeoutMillis = timeoutMillis;
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            int lane = i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(queueCapacity),
+                    r -> {
+                        Thread thread = new Thread(r, "cart-events-" + lane);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        bus.subscribe(this::deliver);
+    }
+
+    /**
+     * Registers a subscriber for the cart, then reads and sends the initial snapshot on the cart's
+     * lane. A change committed after the read is queued behind it, and one sent before it is
+     * superseded by it, so the subscriber never stays on a state older than the cart's.
+     */
+    public SseEmitter subscribe(Long cartId, Supplier<CartEventDTO> snapshot) {
+        // EventSource clients reconnect by themselves once the timeout closes the stream
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.compute(cartId, (id, emitters) -> {
+            Set<SseEmitter> set = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            set.add(emitter);
+            return set;
+        });
+        subscriberCount.incrementAndGet();
+        Runnable remove = () -> unsubscribe(cartId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        boolean queued = execute(cartId, () -> {
+            CartEventDTO current;
+            try {
+                current = snapshot.get();
+            } catch (RuntimeException e) {
+                logger.debug("Cannot read snapshot of cart {}: {}", cartId, e.getMessage());
+                emitter.complete();
+                return;
+            }
+            send(cartId, emitter, current);
+        });
+        if (!queued) {
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /** Publishes once the current transaction commits, or right away outside one. */
+    public void publish(CartEventDTO event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bus.publish(event);
+                }
+            });
+        } else {
+            bus.publish(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void deliver(CartEventDTO event) {
+        Set<SseEmitter> emitters = subscribers.get(event.getCartId());
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        boolean queued = execute(event.getCartId(), () -> {
+            for (SseEmitter emitter : emitters) {
+                send(event.getCartId(), emitter, event);
+            }
+            if (event.getType() == CartEventDTO.Type.CART_DELETED) {
+                emitters.forEach(SseEmitter::complete);
+            }
+        });
+        if (!queued) {
+            logger.warn("Cart event lane full, closing {} streams of cart {} so they resync", emitters.size(),
+                    event.getCartId());
+            emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    // Keeps proxies from closing idle streams and finds dead connections
+    @Scheduled(fixedDelayString = "${cart.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (int i = 0; i < lanes.length; i++) {
+            int lane = i;
+            try {
+                lanes[lane].execute(() -> subscribers.forEach((cartId, emitters) -> {
+                    if (laneOf(cartId) == lane) {
+                        keepAlive(cartId, emitters);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                // The lane is busy with events, which keep its streams alive anyway
+                logger.debug("Cart event lane {} full, skipping heartbeat", lane);
+            }
+        }
+    }
+
+    private void keepAlive(Long cartId, Set<SseEmitter> emitters) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(cartId, emitter);
+            }
+        }
+    }
+
+    private void send(Long cartId, SseEmitter emitter, CartEventDTO event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name(event.getType().name())
+                    .data(event, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(cartId, emitter);
+        }
+    }
+
+    private void unsubscribe(Long cartId, SseEmitter emitter) {
+        subscribers.computeIfPresent(cartId, (id, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private int laneOf(Long cartId) {
+        return (int) Math.floorMod(cartId, (long) lanes.length);
+    }
+
+    /** Queues the task on the cart's lane; false when the lane is full and the task was dropped. */
+    private boolean execute(Long cartId, Runnable task) {
+        try {
+            lanes[laneOf(cartId)].execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        for (ExecutorService lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+}
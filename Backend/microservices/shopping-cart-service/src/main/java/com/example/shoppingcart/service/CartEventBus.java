@@ -0,0 +1,16 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.CartEventDTO;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cart change events between shopping-cart-service replicas, so a subscriber connected
+ * to one node sees edits made through another. A broker-backed implementation delivers each
+ * published event to the listeners on every node, including the publisher's own.
+ */
+public interface CartEventBus {
+    void publish(CartEventDTO event);
+
+    void subscribe(Consumer<CartEventDTO> listener);
+}
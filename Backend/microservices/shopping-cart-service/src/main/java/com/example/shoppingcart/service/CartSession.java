@@ -0,0 +1,89 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.ShoppingCartItemDTO;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind state of one cart: the ids of its lines by (productItemId, size), and the line
+ * quantities that were acknowledged but not yet written to the database.
+ */
+public class CartSession {
+    private final Long cartId;
+    private final Map<String, Long> lineIds = new HashMap<>();
+    private final Map<Long, Integer> pendingQuantities = new HashMap<>();
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    public CartSession(Long cartId, List<ShoppingCartItemDTO> items) {
+        this.cartId = cartId;
+        for (ShoppingCartItemDTO item : items) {
+            lineIds.put(key(item.getProductItemId(), item.getSize()), item.getId());
+        }
+    }
+
+    public static String key(Long productItemId, String size) {
+        return productItemId + "__" + (size == null ? "" : size);
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    /** Whether the session was evicted; a closed session must not take pending quantities. */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public void close() {
+        closed = true;
+    }
+
+    public synchronized Long lineId(Long productItemId, String size) {
+        lastAccessMillis = System.currentTimeMillis();
+        return lineIds.get(key(productItemId, size));
+    }
+
+    public synchronized void addLine(Long productItemId, String size, Long itemId) {
+        lineIds.put(key(productItemId, size), itemId);
+    }
+
+    /** Forgets a line and any quantity still pending for it. */
+    public synchronized void removeLine(Long itemId) {
+        lineIds.values().remove(itemId);
+        pendingQuantities.remove(itemId);
+    }
+
+    public synchronized void setPending(Long itemId, int quantity) {
+        pendingQuantities.put(itemId, quantity);
+    }
+
+    public synchronized Integer pendingQuantity(Long itemId) {
+        return pendingQuantities.get(itemId);
+    }
+
+    public synchronized boolean hasPending() {
+        return !pendingQuantities.isEmpty();
+    }
+
+    public synchronized Map<Long, Integer> drainPending() {
+        Map<Long, Integer> drained = new HashMap<>(pendingQuantities);
+        pendingQuantities.clear();
+        return drained;
+    }
+
+    /** Puts back quantities whose write failed, unless a newer one arrived meanwhile. */
+    public synchronized void restorePending(Map<Long, Integer> quantities) {
+        quantities.forEach((itemId, quantity) -> {
+            if (lineIds.containsValue(itemId)) {
+                pendingQuantities.putIfAbsent(itemId, quantity);
+            }
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.shoppingcart.service;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Holds the write-behind sessions of active carts. The in-memory implementation serves a single
+ * node; with several replicas, requests for a cart must be routed to one node or the store
+ * replaced with one shared between them.
+ */
+public interface CartSessionStore {
+    CartSession get(Long cartId);
+
+    CartSession getOrLoad(Long cartId, Function<Long, CartSession> loader);
+
+    void evict(Long cartId);
+
+    Collection<CartSession> sessions();
+}
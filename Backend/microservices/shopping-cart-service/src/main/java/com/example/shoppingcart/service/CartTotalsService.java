@@ -0,0 +1,107 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.CartLineTotalDTO;
+import com.example.shoppingcart.dto.CartTotalsDTO;
+import com.example.shoppingcart.dto.ProductItemPriceDTO;
+import com.example.shoppingcart.dto.PromotionDTO;
+import com.example.shoppingcart.dto.ShoppingCartDTO;
+import com.example.shoppingcart.dto.ShoppingCartItemDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side cart pricing: line prices, the best active category promotion per line, and a
+ * shipping estimate of the cheapest option of each distinct product in the cart.
+ */
+@Service
+@RequiredArgsConstructor
+public class CartTotalsService {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final ShoppingCartService cartService;
+    private final ProductPriceCache priceCache;
+
+    public CartTotalsDTO computeTotals(Long cartId) {
+        ShoppingCartDTO cart = cartService.getCartById(cartId);
+        List<ShoppingCartItemDTO> items = cart.getItems();
+        Set<Long> productItemIds = items.stream().map(ShoppingCartItemDTO::getProductItemId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, ProductItemPriceDTO> prices = productItemIds.isEmpty() ? Map.of() : priceCache.getPrices(productItemIds);
+        Set<Long> categoryIds = prices.values().stream().map(ProductItemPriceDTO::getCategoryId)
+                .filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, List<PromotionDTO>> promotions = categoryIds.isEmpty() ? Map.of() : priceCache.getPromotions(categoryIds);
+
+        LocalDate today = LocalDate.now();
+        List<CartLineTotalDTO> lines = new ArrayList<>();
+        List<Long> unpriced = new ArrayList<>();
+        Map<Long, BigDecimal> shippingByProduct = new HashMap<>();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discountTotal = BigDecimal.ZERO;
+        for (ShoppingCartItemDTO item : items) {
+            ProductItemPriceDTO price = prices.get(item.getProductItemId());
+            if (price == null || price.getPrice() == null) {
+                unpriced.add(item.getProductItemId());
+                continue;
+            }
+            BigDecimal lineSubtotal = price.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+            PromotionDTO promotion = bestActivePromotion(promotions.get(price.getCategoryId()), today);
+            BigDecimal discount = promotion == null ? BigDecimal.ZERO
+                    : lineSubtotal.multiply(promotion.getDiscountRate()).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+
+            CartLineTotalDTO line = new CartLineTotalDTO();
+            line.setItemId(item.getId());
+            line.setProductItemId(item.getProductItemId());
+            line.setProductId(price.getProductId());
+            line.setName(price.getName());
+            line.setSize(item.getSize());
+            line.setQuantity(item.getQuantity());
+            line.setUnitPrice(price.getPrice());
+            line.setLineSubtotal(lineSubtotal);
+            line.setPromotionName(promotion == null ? null : promotion.getName());
+            line.setDiscount(discount);
+            line.setLineTotal(lineSubtotal.subtract(discount));
+            lines.add(line);
+
+            subtotal = subtotal.add(lineSubtotal);
+            discountTotal = discountTotal.add(discount);
+            if (price.getCheapestShippingPrice() != null) {
+                shippingByProduct.putIfAbsent(price.getProductId(), price.getCheapestShippingPrice());
+            }
+        }
+        BigDecimal shipping = shippingByProduct.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        CartTotalsDTO totals = new CartTotalsDTO();
+        totals.setCartId(cartId);
+        totals.setLines(lines);
+        totals.setSubtotal(subtotal);
+        totals.setDiscountTotal(discountTotal);
+        totals.setShippingEstimate(shipping);
+        totals.setTotal(subtotal.subtract(discountTotal).add(shipping));
+        totals.setUnpricedProductItemIds(unpriced);
+        return totals;
+    }
+
+    private static PromotionDTO bestActivePromotion(List<PromotionDTO> candidates, LocalDate today) {
+        if (candidates == null) {
+            return null;
+        }
+        return candidates.stream()
+                .filter(p -> p.getDiscountRate() != null && p.getDiscountRate().signum() > 0)
+                .filter(p -> p.getStartDate() == null || !today.isBefore(p.getStartDate()))
+                .filter(p -> p.getEndDate() == null || !today.isAfter(p.getEndDate()))
+                .max(Comparator.comparing(PromotionDTO::getDiscountRate))
+                .orElse(null);
+    }
+}
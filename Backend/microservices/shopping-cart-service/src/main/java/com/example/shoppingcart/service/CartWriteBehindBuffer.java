@@ -0,0 +1,247 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.ShoppingCartItemDTO;
+import com.example.shoppingcart.repository.ShoppingCartItemBatchRepository;
+import com.example.shoppingcart.repository.ShoppingCartItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind layer for cart line quantities. A quantity change on a line the cart's
+ * session already knows is journaled and kept in memory; repeated changes to the same line
+ * collapse into one pending value, and all pending values are written in one JDBC batch on a
+ * short interval, before any direct write to cart lines, on checkout and on shutdown.
+ * New lines are still inserted synchronously, so every line a client sees has an id.
+ */
+@Component
+public class CartWriteBehindBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteBehindBuffer.class);
+
+    private final CartSessionStore sessionStore;
+    private final CartWriteJournal journal;
+    private final ShoppingCartItemRepository itemRepository;
+    private final ShoppingCartItemBatchRepository itemBatchRepository;
+    // Appends and pending updates share the read side; a flush takes the write side to rotate the
+    // journal and drain sessions together, so no acknowledged quantity falls between the two
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final AtomicLong deferredWrites = new AtomicLong();
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.session-idle-ms:900000}")
+    private long sessionIdleMillis;
+
+    public CartWriteBehindBuffer(CartSessionStore sessionStore, CartWriteJournal journal,
+                                 ShoppingCartItemRepository itemRepository, ShoppingCartItemBatchRepository itemBatchRepository) {
+        this.sessionStore = sessionStore;
+        this.journal = journal;
+        this.itemRepository = itemRepository;
+        this.itemBatchRepository = itemBatchRepository;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Defers a quantity for an existing line of the cart. Returns the line as it will be written,
+     * or null when the line is not known and the caller has to write it directly.
+     */
+    public ShoppingCartItemDTO deferQuantity(Long cartId, Long productItemId, String size, int quantity) {
+        while (true) {
+            CartSession session = sessionStore.getOrLoad(cartId, this::loadSession);
+            Long itemId = session.lineId(productItemId, size);
+            if (itemId == null) {
+                return null;
+            }
+            flushLock.readLock().lock();
+            try {
+                // Sessions are closed only under the write lock, so an open one stays in the store
+                // until a flush has picked this quantity up; a closed one is retried with a fresh session
+                if (session.isClosed()) {
+                    continue;
+                }
+                journal.append(cartId, itemId, quantity);
+                session.setPending(itemId, quantity);
+            } finally {
+                flushLock.readLock().unlock();
+            }
+            deferredWrites.incrementAndGet();
+            return new ShoppingCartItemDTO(itemId, cartId, productItemId, size, quantity);
+        }
+    }
+
+    /** Registers a line the caller has just written directly. */
+    public void lineWritten(ShoppingCartItemDTO item) {
+        CartSession session = sessionStore.get(item.getCartId());
+        if (session != null) {
+            session.addLine(item.getProductItemId(), item.getSize(), item.getId());
+        }
+    }
+
+    /** Drops a line and its pending quantity before the line is deleted. */
+    public void lineRemoved(Long itemId) {
+        for (CartSession session : sessionStore.sessions()) {
+            session.removeLine(itemId);
+        }
+    }
+
+    /** Replaces persisted quantities with the pending ones, so reads see acknowledged changes. */
+    public void overlay(Long cartId, List<ShoppingCartItemDTO> items) {
+        CartSession session = sessionStore.get(cartId);
+        if (session == null || !session.hasPending()) {
+            return;
+        }
+        for (ShoppingCartItemDTO item : items) {
+            Integer pending = session.pendingQuantity(item.getId());
+            if (pending != null) {
+                item.setQuantity(pending);
+            }
+        }
+    }
+
+    /**
+     * Writes everything pending and forgets the cart's session; for paths that change a cart's
+     * lines directly, which must not be overtaken by an older pending quantity.
+     */
+    public void flushAndEvict(Long cartId) {
+        if (!enabled) {
+            return;
+        }
+        // A quantity deferred between the flush and the eviction is flushed by the next round
+        do {
+            if (!flush()) {
+                throw new IllegalStateException("Pending cart writes could not be flushed");
+            }
+        } while (!closeSession(cartId, false));
+    }
+
+    /** Forgets a deleted cart's session along with anything still pending for it. */
+    public void discard(Long cartId) {
+        closeSession(cartId, true);
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        long idleBefore = System.currentTimeMillis() - sessionIdleMillis;
+        List<Long> idle = new ArrayList<>();
+        for (CartSession session : sessionStore.sessions()) {
+            if (!session.hasPending() && session.getLastAccessMillis() < idleBefore) {
+                idle.add(session.getCartId());
+            }
+        }
+        idle.forEach(cartId -> closeSession(cartId, false));
+    }
+
+    /**
+     * Closes and forgets a cart's session under the flush write lock, so no deferQuantity is
+     * halfway through it. Unless dropPending is set, a session that took a quantity since the
+     * last flush is kept and false is returned.
+     */
+    private boolean closeSession(Long cartId, boolean dropPending) {
+        flushLock.writeLock().lock();
+        try {
+            CartSession session = sessionStore.get(cartId);
+            if (session == null) {
+                return true;
+            }
+            if (!dropPending && session.hasPending()) {
+                return false;
+            }
+            session.close();
+            sessionStore.evict(cartId);
+            return true;
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes all pending quantities in one batch, then drops the journal segments they came from.
+     * Returns false when the write failed and the quantities were kept for the next flush.
+     */
+    public synchronized boolean flush() {
+        Map<CartSession, Map<Long, Integer>> drained = new HashMap<>();
+        Map<Long, Integer> quantities = new HashMap<>();
+        flushLock.writeLock().lock();
+        try {
+            for (CartSession session : sessionStore.sessions()) {
+                if (session.hasPending()) {
+                    Map<Long, Integer> pending = session.drainPending();
+                    drained.put(session, pending);
+                    quantities.putAll(pending);
+                }
+            }
+            if (quantities.isEmpty()) {
+                return true;
+            }
+            journal.rotate();
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+        try {
+            itemBatchRepository.updateQuantities(quantities);
+        } catch (RuntimeException e) {
+            // Keep the values in memory and the rotated segments on disk; the next flush retries them
+            drained.forEach(CartSession::restorePending);
+            logger.warn("Cart write-behind flush of {} lines failed, will retry", quantities.size(), e);
+            return false;
+        }
+        journal.commit();
+        flushedRows.addAndGet(quantities.size());
+        logger.debug("Flushed {} cart lines ({} deferred writes so far)", quantities.size(), deferredWrites.get());
+        return true;
+    }
+
+    public long getDeferredWrites() {
+        return deferredWrites.get();
+    }
+
+    public long getFlushedRows() {
+        return flushedRows.get();
+    }
+
+    // Replays quantities acknowledged before a crash; runs once the schema is initialized
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Map<Long, Integer> recovered = journal.recover();
+        if (recovered.isEmpty()) {
+            return;
+        }
+        itemBatchRepository.updateQuantities(recovered);
+        journal.rotate();
+        journal.commit();
+        logger.info("Replayed {} cart line quantities from the write-behind journal", recovered.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    private CartSession loadSession(Long cartId) {
+        return new CartSession(cartId, itemRepository.findItemViewsByCartIdIn(List.of(cartId)));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.shoppingcart.service;
+
+import java.util.Map;
+
+/**
+ * Durability hook for write-behind cart quantities. Every quantity is appended before the request
+ * that set it is acknowledged, so entries not yet flushed to the database survive a crash and are
+ * replayed on the next start.
+ */
+public interface CartWriteJournal {
+    void append(Long cartId, Long itemId, int quantity);
+
+    /** Starts a new segment; entries appended from here on are kept by the next {@link #commit()}. */
+    void rotate();
+
+    /** Drops the segments rotated out, once their entries are in the database. */
+    void commit();
+
+    /** Quantities left by a previous run, by item id, last write winning. */
+    Map<Long, Integer> recover();
+}
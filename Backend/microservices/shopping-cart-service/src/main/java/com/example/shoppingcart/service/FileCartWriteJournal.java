@@ -0,0 +1,128 @@
+package com.example.shoppingcart.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of "cartId,itemId,quantity" lines in numbered segment files. A local
+ * sequential append is far cheaper than a database write, and with {@code fsync} enabled an
+ * acknowledged quantity is on disk before the response is sent.
+ */
+public class FileCartWriteJournal implements CartWriteJournal {
+    private static final String PREFIX = "cart-journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final boolean fsync;
+    private long segment;
+    private FileChannel channel;
+
+    public FileCartWriteJournal(Path directory, boolean fsync) {
+        this.directory = directory;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cart journal directory " + directory, e);
+        }
+        List<Long> existing = segments();
+        this.segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1) + 1;
+    }
+
+    @Override
+    public synchronized void append(Long cartId, Long itemId, int quantity) {
+        byte[] line = (cartId + "," + itemId + "," + quantity + "\n").getBytes(StandardCharsets.US_ASCII);
+        try {
+            if (channel == null) {
+                channel = FileChannel.open(path(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to cart journal", e);
+        }
+    }
+
+    @Override
+    public synchronized void rotate() {
+        closeChannel();
+        segment++;
+    }
+
+    @Override
+    public synchronized void commit() {
+        for (long old : segments()) {
+            if (old < segment) {
+                try {
+                    Files.deleteIfExists(path(old));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot delete cart journal segment " + path(old), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized Map<Long, Integer> recover() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (long old : segments()) {
+            try (Stream<String> lines = Files.lines(path(old), StandardCharsets.US_ASCII)) {
+                lines.forEach(line -> {
+                    String[] parts = line.split(",");
+                    // A torn last line from a crash mid-append is skipped
+                    if (parts.length == 3) {
+                        quantities.put(Long.parseLong(parts[1]), Integer.parseInt(parts[2]));
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read cart journal segment " + path(old), e);
+            }
+        }
+        return quantities;
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close cart journal segment", e);
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    private List<Long> segments() {
+        List<Long> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .forEach(name -> numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list cart journal directory " + directory, e);
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path path(long number) {
+        return directory.resolve(PREFIX + number + SUFFIX);
+    }
+}
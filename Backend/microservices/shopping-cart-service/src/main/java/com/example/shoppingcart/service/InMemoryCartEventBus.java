@@ -0,0 +1,22 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.dto.CartEventDTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/** Hands each event straight to the listeners in this JVM; subscribers on other nodes never see it. */
+public class InMemoryCartEventBus implements CartEventBus {
+    private final List<Consumer<CartEventDTO>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CartEventDTO event) {
+        listeners.forEach(listener -> listener.accept(event));
+    }
+
+    @Override
+    public void subscribe(Consumer<CartEventDTO> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.shoppingcart.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/** Keeps the sessions of the carts this node serves in a heap map. */
+public class InMemoryCartSessionStore implements CartSessionStore {
+    private final Map<Long, CartSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public CartSession get(Long cartId) {
+        return sessions.get(cartId);
+    }
+
+    @Override
+    public CartSession getOrLoad(Long cartId, Function<Long, CartSession> loader) {
+        return sessions.computeIfAbsent(cartId, loader);
+    }
+
+    @Override
+    public void evict(Long cartId) {
+        sessions.remove(cartId);
+    }
+
+    @Override
+    public Collection<CartSession> sessions() {
+        return sessions.values();
+    }
+}
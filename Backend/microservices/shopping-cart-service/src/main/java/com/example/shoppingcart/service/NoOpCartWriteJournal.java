@@ -0,0 +1,23 @@
+package com.example.shoppingcart.service;
+
+import java.util.Map;
+
+/** Used when no journal directory is configured; pending quantities are lost on a crash. */
+public class NoOpCartWriteJournal implements CartWriteJournal {
+    @Override
+    public void append(Long cartId, Long itemId, int quantity) {
+    }
+
+    @Override
+    public void rotate() {
+    }
+
+    @Override
+    public void commit() {
+    }
+
+    @Override
+    public Map<Long, Integer> recover() {
+        return Map.of();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.shoppingcart.service;
+
+import com.example.shoppingcart.client.ProductClient;
+import com.example.shoppingcart.client.PromotionClient;
+import com.example.shoppingcart.dto.ProductItemPriceDTO;
+import com.example.shoppingcart.dto.PromotionDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Short-lived local copies of product item prices and category promotions. Misses for a whole
+ * cart are fetched with one bulk call per service, so a cart costs at most two remote calls.
+ * Ids the services do not know are cached as empty entries for the same TTL, so a cart holding
+ * a deleted item makes no remote call while its entries are cached.
+ */
+@Component
+public class ProductPriceCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceCache.class);
+
+    private final ProductClient productClient;
+    private final PromotionClient promotionClient;
+    private final Cache<Long, Optional<ProductItemPriceDTO>> prices;
+    private final Cache<Long, List<PromotionDTO>> promotions;
+
+    public ProductPriceCache(ProductClient productClient, PromotionClient promotionClient,
+                             @Value("${cart.pricing.cache-ttl-seconds:30}") long ttlSeconds,
+                             @Value("${cart.pricing.cache-max-size:50000}") long maxSize) {
+        this.productClient = productClient;
+        this.promotionClient = promotionClient;
+        this.prices = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+        this.promotions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /** Prices by product item id; ids unknown to product-service are absent. */
+    public Map<Long, ProductItemPriceDTO> getPrices(Collection<Long> productItemIds) {
+        Map<Long, Optional<ProductItemPriceDTO>> cached = prices.getAll(productItemIds, missing -> {
+            Map<Long, Optional<ProductItemPriceDTO>> loaded = new HashMap<>();
+            missing.forEach(id -> loaded.put(id, Optional.empty()));
+            for (ProductItemPriceDTO price : productClient.getItemPrices(new ArrayList<>(missing))) {
+                loaded.put(price.getProductItemId(), Optional.of(price));
+            }
+            return loaded;
+        });
+        Map<Long, ProductItemPriceDTO> found = new HashMap<>();
+        cached.forEach((id, price) -> price.ifPresent(p -> found.put(id, p)));
+        return found;
+    }
+
+    /** Promotions by category id. Totals are still served, without promotions, if promotion-service is down. */
+    public Map<Long, List<PromotionDTO>> getPromotions(Collection<Long> categoryIds) {
+        try {
+            return promotions.getAll(categoryIds, missing -> {
+                // Categories without promotions are cached as empty lists
+                Map<Long, List<PromotionDTO>> loaded = new HashMap<>();
+                missing.forEach(id -> loaded.put(id, List.of()));
+                loaded.putAll(promotionClient.getPromotionsByCategories(new ArrayList<>(missing)));
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Promotion lookup failed, pricing without promotions: {}", e.getMessage());
+            return Map.of();
+        }
+    }
+}
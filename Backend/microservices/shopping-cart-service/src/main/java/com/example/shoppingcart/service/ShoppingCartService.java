@@ -1,20 +1,30 @@
 package com.example.shoppingcart.service;
 
 import com.example.shoppingcart.client.SiteUserClient;
+import com.example.shoppingcart.dto.CartBatchRequest;
+import com.example.shoppingcart.dto.CartEventDTO;
 import com.example.shoppingcart.dto.ShoppingCartDTO;
 import com.example.shoppingcart.dto.ShoppingCartItemDTO;
-import com.example.shoppingcart.entity.ProductItem;
 import com.example.shoppingcart.entity.ShoppingCart;
-import com.example.shoppingcart.entity.ShoppingCartItem;
+import com.example.shoppingcart.repository.ShoppingCartItemBatchRepository;
 import com.example.shoppingcart.repository.ShoppingCartItemRepository;
 import com.example.shoppingcart.repository.ShoppingCartRepository;
 import com.example.shoppingcart.repository.ProductItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,13 +37,25 @@ public class ShoppingCartService {
     private final ShoppingCartRepository cartRepository;
     private final ShoppingCartItemRepository itemRepository;
     private final ProductItemRepository productItemRepository;
+    private final ShoppingCartItemBatchRepository itemBatchRepository;
+    private final CartWriteBehindBuffer writeBehind;
+    private final CartEventBroadcaster cartEvents;
+    private final TransactionTemplate transactionTemplate;
+    private static final String MY_CART = "My Cart";
     private static final Logger logger = LoggerFactory.getLogger(ShoppingCartService.class);
 
-    public ShoppingCartService(SiteUserClient siteUserClient, ShoppingCartRepository cartRepository, ShoppingCartItemRepository itemRepository, ProductItemRepository productItemRepository) {
+    @Value("${cart.batch.max-operations:200}")
+    private int maxBatchOperations;
+
+    public ShoppingCartService(SiteUserClient siteUserClient, ShoppingCartRepository cartRepository, ShoppingCartItemRepository itemRepository, ProductItemRepository productItemRepository, ShoppingCartItemBatchRepository itemBatchRepository, CartWriteBehindBuffer writeBehind, CartEventBroadcaster cartEvents, TransactionTemplate transactionTemplate) {
         this.siteUserClient = siteUserClient;
         this.cartRepository = cartRepository;
         this.itemRepository = itemRepository;
         this.productItemRepository = productItemRepository;
+        this.itemBatchRepository = itemBatchRepository;
+        this.writeBehind = writeBehind;
+        this.cartEvents = cartEvents;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Object getUserById(Long userId) {
@@ -49,22 +71,19 @@ public class ShoppingCartService {
         cart.setUpdatedAt(LocalDateTime.now());
         cart.setInvitedEmails(Collections.emptyList());
         ShoppingCart saved = cartRepository.save(cart);
-        return toDTO(saved);
+        return toDTOs(List.of(saved), false).get(0);
     }
 
     public List<ShoppingCartDTO> getAllCartsForUser(String userEmail) {
-        List<ShoppingCart> owned = cartRepository.findAll().stream()
-                .filter(c -> userEmail.equals(c.getCreatedBy()))
-                .collect(Collectors.toList());
-        List<ShoppingCart> invited = cartRepository.findAll().stream()
-                .filter(c -> c.getInvitedEmails() != null && c.getInvitedEmails().contains(userEmail))
-                .collect(Collectors.toList());
-        owned.addAll(invited);
-        return owned.stream().map(this::toDTO).collect(Collectors.toList());
+        // Owned carts first, then carts shared with the user; a cart in both lists is returned once
+        Map<Long, ShoppingCart> carts = new LinkedHashMap<>();
+        cartRepository.findByCreatedByOrderById(userEmail).forEach(c -> carts.put(c.getId(), c));
+        cartRepository.findByInvitedEmail(userEmail).forEach(c -> carts.putIfAbsent(c.getId(), c));
+        return toDTOs(new ArrayList<>(carts.values()));
     }
 
     public List<ShoppingCartDTO> getAllCarts() {
-        return cartRepository.findAll().stream().map(this::toDTO).collect(Collectors.toList());
+        return toDTOs(cartRepository.findAll());
     }
 
     @Transactional
@@ -83,134 +102,231 @@ public class ShoppingCartService {
     public ShoppingCartDTO getCartById(Long cartId) {
         ShoppingCart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
-        List<ShoppingCartItem> items = itemRepository.findByCartId(cart.getId());
-        ShoppingCartDTO dto = toDTO(cart);
-        dto.setItems(items.stream().map(this::toDTO).collect(Collectors.toList()));
-        return dto;
+        return toDTO(cart);
     }
 
     public List<ShoppingCartItemDTO> getItemsByCartId(Long cartId) {
-        List<ShoppingCartItem> items = itemRepository.findByCartId(cartId);
-        return items.stream().map(this::toDTO).collect(Collectors.toList());
+        List<ShoppingCartItemDTO> items = itemRepository.findItemViewsByCartIdIn(List.of(cartId));
+        if (writeBehind.isEnabled()) {
+            writeBehind.overlay(cartId, items);
+        }
+        return items;
     }
 
-    @Transactional
+    // Not transactional on purpose: the upsert commits on its own, so a unique key violation from a
+    // concurrent add of the same line can be retried, and the retry then takes the update branch
     public ShoppingCartItemDTO addItemToCart(Long cartId, Long productItemId, int qty, String size) {
-        ShoppingCart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new RuntimeException("Cart not found"));
-        // Check if product item exists
-        ProductItem productItem = productItemRepository.findById(productItemId)
-                .orElseThrow(() -> new RuntimeException("Product item not found: " + productItemId));
-        // Check if item already exists
-        List<ShoppingCartItem> items = itemRepository.findByCartId(cartId);
-        for (ShoppingCartItem item : items) {
-            if (item.getProductItem().getId().equals(productItemId)
-                    && ((item.getSize() == null && size == null) || (item.getSize() != null && item.getSize().equals(size)))) {
-                item.setQuantity(qty); // Set to the new quantity, not add
-                itemRepository.save(item);
-                return toDTO(item);
+        if (writeBehind.isEnabled()) {
+            ShoppingCartItemDTO deferred = writeBehind.deferQuantity(cartId, productItemId, size, qty);
+            if (deferred != null) {
+                cartEvents.publish(CartEventDTO.itemUpserted(deferred));
+                return deferred;
             }
         }
-        // Otherwise, add new item
-        ShoppingCartItem newItem = new ShoppingCartItem();
-        newItem.setCart(cart);
-        newItem.setProductItem(productItem);
-        newItem.setQuantity(qty);
-        newItem.setSize(size);
-        itemRepository.save(newItem);
-        return toDTO(newItem);
+        List<Object[]> rows;
+        try {
+            rows = itemRepository.upsertItem(cartId, productItemId, size, qty);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Concurrent insert of cart {} line {}/{}, retrying as update", cartId, productItemId, size);
+            rows = itemRepository.upsertItem(cartId, productItemId, size, qty);
+        }
+        if (rows.isEmpty()) {
+            if (!cartRepository.existsById(cartId)) {
+                throw new RuntimeException("Cart not found");
+            }
+            throw new RuntimeException("Product item not found: " + productItemId);
+        }
+        Object[] row = rows.get(0);
+        ShoppingCartItemDTO written = new ShoppingCartItemDTO(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(), (String) row[3], ((Number) row[4]).intValue());
+        if (writeBehind.isEnabled()) {
+            writeBehind.lineWritten(written);
+        }
+        cartEvents.publish(CartEventDTO.itemUpserted(written));
+        return written;
+    }
+
+    // One transaction for the whole list; retried once if a concurrent request inserted one of the same lines first
+    public ShoppingCartDTO applyItemOperations(Long cartId, List<CartBatchRequest.Operation> operations) {
+        if (operations != null && operations.size() > maxBatchOperations) {
+            throw new IllegalArgumentException("at most " + maxBatchOperations + " operations are allowed per request");
+        }
+        validateOperations(operations);
+        writeBehind.flushAndEvict(cartId);
+        applyWithRetry(cartId, operations);
+        ShoppingCartDTO cart = getCartById(cartId);
+        cartEvents.publish(CartEventDTO.snapshot(cart));
+        return cart;
+    }
+
+    // Streams the cart's changes to the caller, starting with its current state
+    public SseEmitter subscribeToCart(Long cartId) {
+        if (!cartRepository.existsById(cartId)) {
+            throw new RuntimeException("Cart not found");
+        }
+        return cartEvents.subscribe(cartId, () -> CartEventDTO.snapshot(getCartById(cartId)));
+    }
+
+    // Called at checkout so the cart's lines in the database are final; false for an unknown cart
+    public boolean flushPendingWrites(Long cartId) {
+        if (!cartRepository.existsById(cartId)) {
+            return false;
+        }
+        writeBehind.flushAndEvict(cartId);
+        return true;
+    }
+
+    private void applyWithRetry(Long cartId, List<CartBatchRequest.Operation> operations) {
+        boolean applied;
+        try {
+            applied = itemBatchRepository.apply(cartId, operations);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Concurrent insert into cart {}, retrying batch", cartId);
+            applied = itemBatchRepository.apply(cartId, operations);
+        }
+        if (!applied) {
+            throw new RuntimeException("Cart not found");
+        }
+    }
+
+    private void validateOperations(List<CartBatchRequest.Operation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("operations must not be empty");
+        }
+        Set<Long> productItemIds = new HashSet<>();
+        for (CartBatchRequest.Operation op : operations) {
+            if (op.getType() == null || op.getProductItemId() == null) {
+                throw new IllegalArgumentException("every operation needs a type and a productItemId");
+            }
+            if (op.getType() != CartBatchRequest.Type.REMOVE) {
+                if (op.getQty() <= 0) {
+                    throw new IllegalArgumentException("qty must be positive for " + op.getType());
+                }
+                productItemIds.add(op.getProductItemId());
+            }
+        }
+        // One IN query instead of relying on a foreign key violation in the middle of the batch
+        productItemRepository.findAllById(productItemIds).forEach(item -> productItemIds.remove(item.getId()));
+        if (!productItemIds.isEmpty()) {
+            throw new IllegalArgumentException("Product item not found: " + productItemIds);
+        }
     }
 
     @Transactional
     public void removeItemFromCart(Long itemId) {
+        if (writeBehind.isEnabled()) {
+            writeBehind.lineRemoved(itemId);
+        }
+        Optional<Long> cartId = itemRepository.findCartIdById(itemId);
         itemRepository.deleteById(itemId);
+        cartId.ifPresent(id -> cartEvents.publish(CartEventDTO.itemRemoved(id, itemId)));
     }
 
     @Transactional
     public void deleteCart(Long cartId) {
+        writeBehind.flushAndEvict(cartId);
         // Delete all items in the cart first
         itemRepository.deleteAll(itemRepository.findByCartId(cartId));
         // Then delete the cart
         cartRepository.deleteById(cartId);
+        cartEvents.publish(CartEventDTO.cartDeleted(cartId));
     }
 
-    @Transactional
-    public List<ShoppingCartDTO> mergeGuestCarts(String userEmail, List<MergeCartRequest.GuestCartDTO> guestCarts) {
-        logger.info("mergeGuestCarts called for userEmail: {} with guestCarts: {}", userEmail, guestCarts);
-        if (guestCarts == null || guestCarts.isEmpty()) {
-            logger.info("No guest carts to merge for userEmail: {}", userEmail);
-            return getAllCartsForUser(userEmail);
-        }
-        // Find or create 'My Cart' for this user
-        ShoppingCart myCart = cartRepository.findAll().stream()
-            .filter(c -> userEmail.equals(c.getCreatedBy()) && "My Cart".equals(c.getName()))
-            .findFirst()
-            .orElseGet(() -> {
-                logger.info("Creating new 'My Cart' for userEmail: {}", userEmail);
-                ShoppingCart newCart = new ShoppingCart();
-                newCart.setName("My Cart");
-                newCart.setCreatedBy(userEmail);
-                newCart.setCreatedAt(java.time.LocalDateTime.now());
-                newCart.setUpdatedAt(java.time.LocalDateTime.now());
-                newCart.setInvitedEmails(java.util.Collections.emptyList());
-                return cartRepository.save(newCart);
-            });
-        // Build a map of (productItemId + size) -> ShoppingCartItem for merging
-        java.util.List<ShoppingCartItem> existingItems = itemRepository.findByCartId(myCart.getId());
-        java.util.Map<String, ShoppingCartItem> mergedMap = new java.util.HashMap<>();
-        for (ShoppingCartItem item : existingItems) {
-            String key = item.getProductItem().getId() + "__" + (item.getSize() == null ? "" : item.getSize());
-            mergedMap.put(key, item);
-        }
-        // Merge guest items
-        for (MergeCartRequest.GuestCartDTO guestCart : guestCarts) {
-            if (guestCart.getItems() == null) continue;
-            for (MergeCartRequest.GuestCartItemDTO guestItem : guestCart.getItems()) {
-                String key = guestItem.getProductItemId() + "__" + (guestItem.getSize() == null ? "" : guestItem.getSize());
-                logger.info("Merging item for userEmail {}: productItemId={}, size={}, quantity={}", userEmail, guestItem.getProductItemId(), guestItem.getSize(), guestItem.getQuantity());
-                ShoppingCartItem existing = mergedMap.get(key);
-                if (existing != null) {
-                    existing.setQuantity(existing.getQuantity() + guestItem.getQuantity());
-                    itemRepository.save(existing);
-                } else {
-                    ProductItem productItem = productItemRepository.findById(guestItem.getProductItemId())
-                        .orElseThrow(() -> new RuntimeException("Product item not found: " + guestItem.getProductItemId()));
-                    ShoppingCartItem newItem = new ShoppingCartItem();
-                    newItem.setCart(myCart);
-                    newItem.setProductItem(productItem);
-                    newItem.setQuantity(guestItem.getQuantity());
-                    newItem.setSize(guestItem.getSize());
-                    itemRepository.save(newItem);
-                    mergedMap.put(key, newItem);
+    // Folds all guest lines into the user's "My Cart" with one batched upsert and returns that cart.
+    // Guest lines without a positive quantity are ignored. With nothing to merge, returns the
+    // existing "My Cart" or null, without creating one.
+    public ShoppingCartDTO mergeGuestCarts(String userEmail, List<MergeCartRequest.GuestCartDTO> guestCarts) {
+        // Collapse guest lines by (productItemId, size) so each cart line is written once
+        Map<String, CartBatchRequest.Operation> lines = new LinkedHashMap<>();
+        if (guestCarts != null) {
+            for (MergeCartRequest.GuestCartDTO guestCart : guestCarts) {
+                if (guestCart == null || guestCart.getItems() == null) continue;
+                for (MergeCartRequest.GuestCartItemDTO guestItem : guestCart.getItems()) {
+                    if (guestItem == null || guestItem.getQuantity() == null || guestItem.getQuantity() <= 0) continue;
+                    String key = guestItem.getProductItemId() + "__" + (guestItem.getSize() == null ? "" : guestItem.getSize());
+                    CartBatchRequest.Operation line = lines.get(key);
+                    if (line == null) {
+                        line = new CartBatchRequest.Operation();
+                        line.setType(CartBatchRequest.Type.ADD);
+                        line.setProductItemId(guestItem.getProductItemId());
+                        line.setSize(guestItem.getSize());
+                        lines.put(key, line);
+                    }
+                    line.setQty(line.getQty() + guestItem.getQuantity());
                 }
             }
         }
-        myCart.setUpdatedAt(java.time.LocalDateTime.now());
-        cartRepository.save(myCart);
-        logger.info("Merge complete for userEmail: {}. Returning all carts.", userEmail);
-        return getAllCartsForUser(userEmail);
+        Optional<ShoppingCart> existing = cartRepository.findFirstByCreatedByAndNameOrderById(userEmail, MY_CART);
+        if (lines.isEmpty()) {
+            return existing.map(this::toDTO).orElse(null);
+        }
+        List<CartBatchRequest.Operation> operations = new ArrayList<>(lines.values());
+        validateOperations(operations);
+        existing.ifPresent(cart -> writeBehind.flushAndEvict(cart.getId()));
+        Long cartId;
+        try {
+            cartId = mergeIntoMyCart(userEmail, operations);
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Concurrent insert into the cart of {}, retrying merge", userEmail);
+            cartId = mergeIntoMyCart(userEmail, operations);
+        }
+        logger.debug("Merged {} guest lines into cart {} for {}", operations.size(), cartId, userEmail);
+        ShoppingCartDTO merged = getCartById(cartId);
+        cartEvents.publish(CartEventDTO.snapshot(merged));
+        return merged;
+    }
+
+    // Creating "My Cart" and writing its lines commit together, so a failed merge leaves no empty cart behind
+    private Long mergeIntoMyCart(String userEmail, List<CartBatchRequest.Operation> operations) {
+        return transactionTemplate.execute(tx -> {
+            ShoppingCart myCart = cartRepository.findFirstByCreatedByAndNameOrderById(userEmail, MY_CART)
+                    .orElseGet(() -> {
+                        ShoppingCart newCart = new ShoppingCart();
+                        newCart.setName(MY_CART);
+                        newCart.setCreatedBy(userEmail);
+                        newCart.setCreatedAt(LocalDateTime.now());
+                        newCart.setUpdatedAt(LocalDateTime.now());
+                        newCart.setInvitedEmails(Collections.emptyList());
+                        return cartRepository.save(newCart);
+                    });
+            if (!itemBatchRepository.apply(myCart.getId(), operations)) {
+                throw new RuntimeException("Cart not found");
+            }
+            return myCart.getId();
+        });
     }
 
     private ShoppingCartDTO toDTO(ShoppingCart cart) {
-        ShoppingCartDTO dto = new ShoppingCartDTO();
-        dto.setId(cart.getId());
-        dto.setName(cart.getName());
-        dto.setCreatedAt(cart.getCreatedAt());
-        dto.setUpdatedAt(cart.getUpdatedAt());
-        dto.setUserId(null); // Not used in multi-cart
-        // Fetch items for this cart
-        List<ShoppingCartItem> items = itemRepository.findByCartId(cart.getId());
-        dto.setItems(items.stream().map(this::toDTO).collect(Collectors.toList()));
-        return dto;
-    }
-
-    private ShoppingCartItemDTO toDTO(ShoppingCartItem item) {
-        ShoppingCartItemDTO dto = new ShoppingCartItemDTO();
-        dto.setId(item.getId());
-        dto.setCartId(item.getCart().getId());
-        dto.setProductItemId(item.getProductItem().getId());
-        dto.setQuantity(item.getQuantity());
-        dto.setSize(item.getSize());
-        return dto;
+        return toDTOs(List.of(cart)).get(0);
+    }
+
+    private List<ShoppingCartDTO> toDTOs(List<ShoppingCart> carts) {
+        return toDTOs(carts, true);
+    }
+
+    // Loads the items of all given carts with a single projection query
+    private List<ShoppingCartDTO> toDTOs(List<ShoppingCart> carts, boolean loadItems) {
+        if (carts.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, List<ShoppingCartItemDTO>> itemsByCart = loadItems
+                ? itemRepository.findItemViewsByCartIdIn(carts.stream().map(ShoppingCart::getId).collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.groupingBy(ShoppingCartItemDTO::getCartId))
+                : Map.of();
+        return carts.stream().map(cart -> {
+            ShoppingCartDTO dto = new ShoppingCartDTO();
+            dto.setId(cart.getId());
+            dto.setName(cart.getName());
+            dto.setCreatedAt(cart.getCreatedAt());
+            dto.setUpdatedAt(cart.getUpdatedAt());
+            dto.setUserId(null); // Not used in multi-cart
+            List<ShoppingCartItemDTO> items = itemsByCart.getOrDefault(cart.getId(), new ArrayList<>());
+            if (writeBehind.isEnabled()) {
+                writeBehind.overlay(cart.getId(), items);
+            }
+            dto.setItems(items);
+            return dto;
+        }).collect(Collectors.toList());
     }
 }
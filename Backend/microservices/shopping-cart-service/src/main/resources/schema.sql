@@ -32,6 +32,16 @@ CREATE TABLE shopping_cart_item (
     product_item_id BIGINT,
     size VARCHAR(255),
     quantity INT,
+    -- Last change to the line; single-item adds do not touch shopping_cart.updated_at
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- NULL sizes compare as distinct in a unique index, so the constraint keys on this instead
+    size_key VARCHAR(255) GENERATED ALWAYS AS (COALESCE(size, '')),
     FOREIGN KEY (cart_id) REFERENCES shopping_cart(id),
-    FOREIGN KEY (product_item_id) REFERENCES product_item(id)
-); 
\ No newline at end of file
+    FOREIGN KEY (product_item_id) REFERENCES product_item(id),
+    -- One line per product item and size in a cart; also serves per-cart item loads
+    CONSTRAINT uq_shopping_cart_item_line UNIQUE (cart_id, product_item_id, size_key)
+);
+
+-- Indexes for per-user cart lookups
+CREATE INDEX idx_shopping_cart_created_by ON shopping_cart(created_by);
+CREATE INDEX idx_shopping_cart_invited_emails_email ON shopping_cart_invited_emails(invited_emails);